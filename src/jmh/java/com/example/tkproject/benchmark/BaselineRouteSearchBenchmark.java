@@ -0,0 +1,197 @@
+package com.example.tkproject.benchmark;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+import com.example.tkproject.seed.SyntheticNetwork;
+import com.example.tkproject.seed.SyntheticNetworkGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The original route search, a priority queue of partial routes over a per-day adjacency map of transportation
+ * entities, on the same synthetic networks and queries as {@link RouteEngineBenchmark}. It is the baseline the
+ * graph engines are compared against: {@code bestTenRoutes} and {@code allRoutes} measure the same work as the
+ * benchmarks of the same name there. The baseline cannot stop early, so both find and sort every route.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BaselineRouteSearchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int locations;
+
+    @Param("0.05")
+    public double airportRatio;
+
+    @Param("0.1")
+    public double hubRatio;
+
+    @Param("4")
+    public int transfersPerLocation;
+
+    @Param("20")
+    public int flightsPerAirport;
+
+    private Map<Long, List<Transportation>> adjacencyList;
+    private Map<Long, Location> locationMap;
+    private long[][] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticNetwork network = new SyntheticNetworkGenerator(42L, locations, airportRatio, hubRatio,
+                transfersPerLocation, flightsPerAirport).generate();
+        List<Transportation> availableTransports = network.getTransportations(1);
+        adjacencyList = availableTransports.stream().collect(Collectors.groupingBy(t -> t.getOrigin().getId()));
+        locationMap = new HashMap<>();
+        availableTransports.forEach(t -> {
+            locationMap.put(t.getOrigin().getId(), t.getOrigin());
+            locationMap.put(t.getDestination().getId(), t.getDestination());
+        });
+        queries = BenchmarkQueries.cityPairs(network, 7L, 1024);
+    }
+
+    /**
+     * Position of each benchmark thread in the query list.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public List<List<Transportation>> bestTenRoutes(Cursor cursor) {
+        List<List<Transportation>> routes = search(queries[cursor.next++ & (queries.length - 1)]);
+        return routes.subList(0, Math.min(10, routes.size()));
+    }
+
+    @Benchmark
+    public List<List<Transportation>> allRoutes(Cursor cursor) {
+        return search(queries[cursor.next++ & (queries.length - 1)]);
+    }
+
+    private static final class RouteState implements Comparable<RouteState> {
+        final Long locationId;
+        final double distance;
+        final List<Transportation> route;
+        final int flightCount;
+
+        RouteState(Long locationId, double distance, List<Transportation> route, int flightCount) {
+            this.locationId = locationId;
+            this.distance = distance;
+            this.route = route;
+            this.flightCount = flightCount;
+        }
+
+        @Override
+        public int compareTo(RouteState other) {
+            return Double.compare(this.distance, other.distance);
+        }
+    }
+
+    private List<List<Transportation>> search(long[] query) {
+        Long originId = query[0];
+        Long destinationId = query[1];
+        PriorityQueue<RouteState> pq = new PriorityQueue<>();
+        List<List<Transportation>> validRoutes = new ArrayList<>();
+        pq.offer(new RouteState(originId, 0.0, new ArrayList<>(), 0));
+
+        while (!pq.isEmpty()) {
+            RouteState current = pq.poll();
+
+            if (current.locationId.equals(destinationId)) {
+                if (isValidRoute(current.route)) {
+                    validRoutes.add(new ArrayList<>(current.route));
+                }
+                continue;
+            }
+
+            if (current.route.size() >= 3) {
+                continue;
+            }
+
+            List<Transportation> nextTransports = adjacencyList.getOrDefault(current.locationId, Collections.emptyList());
+            for (Transportation t : nextTransports) {
+                int newFlightCount = current.flightCount + (t.getType() == TransportationType.FLIGHT ? 1 : 0);
+                if (newFlightCount > 1) {
+                    continue;
+                }
+                double newDistance = current.distance + calculateDistance(t.getOrigin(), t.getDestination());
+                List<Transportation> newRoute = new ArrayList<>(current.route);
+                newRoute.add(t);
+                pq.offer(new RouteState(t.getDestination().getId(), newDistance, newRoute, newFlightCount));
+            }
+        }
+
+        validRoutes.sort((r1, r2) -> Double.compare(calculateTotalDistance(r1), calculateTotalDistance(r2)));
+        return validRoutes;
+    }
+
+    private static boolean isValidRoute(List<Transportation> route) {
+        if (route.isEmpty()) {
+            return false;
+        }
+        long flightCount = route.stream().filter(t -> t.getType() == TransportationType.FLIGHT).count();
+        int size = route.size();
+        if (size == 1 || size == 2) {
+            return flightCount == 1;
+        } else if (size == 3) {
+            return flightCount == 1 &&
+                    route.get(0).getType() != TransportationType.FLIGHT &&
+                    route.get(1).getType() == TransportationType.FLIGHT &&
+                    route.get(2).getType() != TransportationType.FLIGHT;
+        }
+        return false;
+    }
+
+    private static double calculateDistance(Location start, Location end) {
+        if (start == null || end == null ||
+                start.getLatitude() == null || start.getLongitude() == null ||
+                end.getLatitude() == null || end.getLongitude() == null) {
+            return Double.MAX_VALUE;
+        }
+        final int R = 6371;
+        double dLat = Math.toRadians(end.getLatitude() - start.getLatitude());
+        double dLon = Math.toRadians(end.getLongitude() - start.getLongitude());
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(start.getLatitude())) *
+                        Math.cos(Math.toRadians(end.getLatitude())) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return R * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private double calculateTotalDistance(List<Transportation> route) {
+        double total = 0.0;
+        for (Transportation t : route) {
+            double d = calculateDistance(locationMap.get(t.getOrigin().getId()), locationMap.get(t.getDestination().getId()));
+            if (d == Double.MAX_VALUE) {
+                return Double.MAX_VALUE;
+            }
+            total += d;
+        }
+        return total;
+    }
+}
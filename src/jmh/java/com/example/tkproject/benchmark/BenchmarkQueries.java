@@ -0,0 +1,30 @@
+package com.example.tkproject.benchmark;
+
+import com.example.tkproject.seed.SyntheticNetwork;
+
+import java.util.Random;
+
+final class BenchmarkQueries {
+
+    private BenchmarkQueries() {
+    }
+
+    /**
+     * Ids of random pairs of distinct non-airport locations, so that most routes need a transfer at both ends.
+     */
+    static long[][] cityPairs(SyntheticNetwork network, long seed, int count) {
+        Random random = new Random(seed);
+        int airports = network.getAirportCount();
+        int cityLocations = network.getLocations().size() - airports;
+        long[][] pairs = new long[count][];
+        for (int i = 0; i < count; i++) {
+            int origin = airports + random.nextInt(cityLocations);
+            int destination = airports + random.nextInt(cityLocations - 1);
+            if (destination >= origin) {
+                destination++;
+            }
+            pairs[i] = new long[]{network.getLocations().get(origin).getId(), network.getLocations().get(destination).getId()};
+        }
+        return pairs;
+    }
+}
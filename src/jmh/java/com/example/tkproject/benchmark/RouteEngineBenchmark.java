@@ -0,0 +1,129 @@
+package com.example.tkproject.benchmark;
+
+import com.example.tkproject.model.enums.RouteSortOrder;
+import com.example.tkproject.seed.SyntheticNetwork;
+import com.example.tkproject.seed.SyntheticNetworkGenerator;
+import com.example.tkproject.service.graph.GraphRoute;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteBound;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteVisitor;
+import com.example.tkproject.service.graph.RouteAutomaton;
+import com.example.tkproject.service.graph.RouteGraphSnapshot;
+import com.example.tkproject.service.graph.RouteRules;
+import com.example.tkproject.service.graph.RuleRouteEnumerator;
+import com.example.tkproject.service.graph.TopRouteCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route search on a prebuilt graph snapshot, isolating the enumeration from loading and caching.
+ * {@code layered} is the default transfer-flight-transfer join, {@code automaton} the rule driven
+ * search compiled from the same default rules, so both return the same routes.
+ * Run with {@code -prof gc} for allocation rates.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RouteEngineBenchmark {
+
+    @Param({"1000", "10000"})
+    public int locations;
+
+    @Param("0.05")
+    public double airportRatio;
+
+    @Param("0.1")
+    public double hubRatio;
+
+    @Param("4")
+    public int transfersPerLocation;
+
+    @Param("20")
+    public int flightsPerAirport;
+
+    @Param({"layered", "automaton"})
+    public String engine;
+
+    private RouteGraphSnapshot graph;
+    private RouteAutomaton automaton;
+    private int[][] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticNetwork network = new SyntheticNetworkGenerator(42L, locations, airportRatio, hubRatio,
+                transfersPerLocation, flightsPerAirport).generate();
+        graph = RouteGraphSnapshot.build(1, network.getTransportations(1));
+        automaton = RouteAutomaton.compile(RouteRules.DEFAULT);
+        long[][] pairs = BenchmarkQueries.cityPairs(network, 7L, 1024);
+        queries = new int[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            queries[i] = new int[]{graph.indexOf(pairs[i][0]), graph.indexOf(pairs[i][1])};
+        }
+    }
+
+    /**
+     * Position of each benchmark thread in the query list.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    private int[] nextQuery(Cursor cursor) {
+        int[] query;
+        do {
+            query = queries[cursor.next++ & (queries.length - 1)];
+        } while (query[0] < 0 || query[1] < 0);
+        return query;
+    }
+
+    private void enumerate(int origin, int destination, RouteBound bound, RouteVisitor visitor) {
+        if ("layered".equals(engine)) {
+            LayeredRouteEnumerator.enumerate(graph, origin, destination, bound, visitor);
+        } else {
+            RuleRouteEnumerator.enumerate(graph, automaton, origin, destination, bound, visitor);
+        }
+    }
+
+    @Benchmark
+    public List<GraphRoute> bestTenRoutes(Cursor cursor) {
+        int[] query = nextQuery(cursor);
+        TopRouteCollector collector = new TopRouteCollector(graph, RouteSortOrder.DISTANCE, 10);
+        enumerate(query[0], query[1], collector, collector);
+        return collector.getRoutes();
+    }
+
+    @Benchmark
+    public void allRoutes(Cursor cursor, Blackhole blackhole) {
+        int[] query = nextQuery(cursor);
+        enumerate(query[0], query[1], RouteBound.NONE, (legs, length, distance) -> blackhole.consume(distance));
+    }
+
+    @Benchmark
+    public void allRoutesFromOrigin(Cursor cursor, Blackhole blackhole) {
+        int origin = nextQuery(cursor)[0];
+        RouteVisitor visitor = (legs, length, distance) -> blackhole.consume(distance);
+        if ("layered".equals(engine)) {
+            LayeredRouteEnumerator.enumerateFrom(graph, origin, visitor);
+        } else {
+            RuleRouteEnumerator.enumerateFrom(graph, automaton, origin, visitor);
+        }
+    }
+}
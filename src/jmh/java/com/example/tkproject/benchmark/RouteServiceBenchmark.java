@@ -0,0 +1,153 @@
+package com.example.tkproject.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.example.tkproject.cache.ClusterSingleFlight;
+import com.example.tkproject.dto.RoutePageDTO;
+import com.example.tkproject.dto.RouteQuery;
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.enums.RouteSortOrder;
+import com.example.tkproject.repository.LocationRepository;
+import com.example.tkproject.repository.TransportationRepository;
+import com.example.tkproject.seed.SyntheticNetwork;
+import com.example.tkproject.seed.SyntheticNetworkGenerator;
+import com.example.tkproject.service.RouteServiceImpl;
+import com.example.tkproject.service.TransportationDtoTable;
+import com.example.tkproject.service.graph.NetworkVersion;
+import com.example.tkproject.service.graph.RouteEngine;
+import com.example.tkproject.service.graph.RouteGraphProvider;
+import com.example.tkproject.service.graph.RouteIndex;
+import com.example.tkproject.service.graph.RouteRules;
+import com.example.tkproject.service.graph.RouteSearchMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * End-to-end {@link RouteServiceImpl} search, from the query to the response DTOs, with the repositories
+ * backed by a synthetic network and caching disabled so every call searches. Graph snapshots are loaded
+ * once during the warm-up and then reused, as in production between network changes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RouteServiceBenchmark {
+
+    private static final LocalDate TRIP_DATE = LocalDate.of(2025, 3, 3);
+
+    @Param({"1000", "10000"})
+    public int locations;
+
+    @Param("0.05")
+    public double airportRatio;
+
+    @Param("0.1")
+    public double hubRatio;
+
+    @Param("4")
+    public int transfersPerLocation;
+
+    @Param("20")
+    public int flightsPerAirport;
+
+    @Param({"10", "1000"})
+    public int limit;
+
+    private RouteServiceImpl routeService;
+    private RouteQuery[] queries;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("benchmark", null));
+
+        SyntheticNetwork network = new SyntheticNetworkGenerator(42L, locations, airportRatio, hubRatio,
+                transfersPerLocation, flightsPerAirport).generate();
+        Map<Long, Location> locationsById = new HashMap<>();
+        network.getLocations().forEach(location -> locationsById.put(location.getId(), location));
+
+        // Stub-only mocks do not record invocations, which would otherwise grow the heap during the measurement
+        LocationRepository locationRepository = mock(LocationRepository.class, withSettings().stubOnly());
+        when(locationRepository.findById(any())).thenAnswer(invocation ->
+                Optional.ofNullable(locationsById.get(invocation.<Long>getArgument(0))));
+        TransportationRepository transportationRepository = mock(TransportationRepository.class, withSettings().stubOnly());
+        when(transportationRepository.findByOperatingDaysContaining(anyInt())).thenAnswer(invocation ->
+                network.getTransportations(invocation.<Integer>getArgument(0)));
+
+        RouteEngine routeEngine = new RouteEngine(RouteRules.DEFAULT);
+        RouteSearchMetrics metrics = new RouteSearchMetrics(new SimpleMeterRegistry());
+        NetworkVersion networkVersion = new NetworkVersion(null, false, 0);
+        RouteGraphProvider routeGraphProvider = new RouteGraphProvider(transportationRepository, new NoOpTransactionManager(),
+                metrics, networkVersion, Long.MAX_VALUE);
+        RouteIndex routeIndex = new RouteIndex(routeGraphProvider, locationRepository, routeEngine, networkVersion, false, 0, 300000);
+        routeService = new RouteServiceImpl(locationRepository, routeGraphProvider, routeIndex, routeEngine,
+                new NoOpCacheManager(), new ClusterSingleFlight(null, false, 0, 0), metrics, networkVersion,
+                new TransportationDtoTable(networkVersion, 100000));
+
+        long[][] pairs = BenchmarkQueries.cityPairs(network, 7L, 1024);
+        queries = new RouteQuery[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            queries[i] = new RouteQuery(pairs[i][0], pairs[i][1], TRIP_DATE, RouteSortOrder.DISTANCE, limit, 0);
+        }
+    }
+
+    /**
+     * Position of each benchmark thread in the query list.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public RoutePageDTO findRoutes(Cursor cursor) {
+        return routeService.findRoutesSync(queries[cursor.next++ & (queries.length - 1)]);
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.tkproject.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.CborJacksonCodec;
+import org.redisson.codec.JsonJacksonCodec;
+
+import java.util.Locale;
+
+/**
+ * Creates the Redis codec of a cache from its name in the configuration:
+ * {@code json}, {@code smile} or {@code cbor}, optionally followed by {@code +lz4}.
+ */
+public final class CacheCodecs {
+
+    private CacheCodecs() {
+    }
+
+    public static Codec create(String spec, int lz4ThresholdBytes) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split("\\+");
+        Codec codec = switch (parts[0]) {
+            case "json" -> new JsonJacksonCodec();
+            // Shared string values write the codes and names repeated across the legs of a route only once.
+            case "smile" -> new JsonJacksonCodec(new ObjectMapper(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build()));
+            case "cbor" -> new CborJacksonCodec();
+            default -> throw new IllegalArgumentException("Unknown cache codec: " + spec);
+        };
+        if (parts.length == 1) {
+            return codec;
+        }
+        if (parts.length == 2 && parts[1].equals("lz4")) {
+            return new ThresholdLz4Codec(codec, lz4ThresholdBytes);
+        }
+        throw new IllegalArgumentException("Unknown cache codec: " + spec);
+    }
+}
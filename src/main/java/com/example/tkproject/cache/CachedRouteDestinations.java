@@ -0,0 +1,27 @@
+package com.example.tkproject.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Compact cache form of the routes from one origin to every destination: location and transportation ids only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedRouteDestinations {
+    private int dayOfWeek;
+    private List<Destination> destinations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Destination {
+        private long locationId;
+        private Double distance;
+        private long[][] routes;
+    }
+}
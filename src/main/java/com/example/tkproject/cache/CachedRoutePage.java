@@ -0,0 +1,21 @@
+package com.example.tkproject.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact cache form of a page of routes: the transportation ids of each route, in order.
+ * The transportation DTOs are looked up again when the page is read from the cache.
+ * <p>
+ * Route distances are not stored: the page is cached after sorting and paging, so its order is already final,
+ * and the returned routes carry no distance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedRoutePage {
+    private int dayOfWeek;
+    private long[][] routes;
+    private String nextCursor;
+}
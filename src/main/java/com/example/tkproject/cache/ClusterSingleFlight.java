@@ -0,0 +1,151 @@
+package com.example.tkproject.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Computes a cached value at most once across all instances sharing the Redis cache.
+ * <p>
+ * When {@code route.cluster-single-flight.enabled} is set, the instance that takes a short-lived
+ * per-key Redisson lock computes the value, stores it in the cache and announces the key on a topic.
+ * The other instances wait for that announcement, up to {@code wait-ms}, and read the value from the
+ * cache. If it does not show up in time they compute it themselves, so a crashed or slow leader only
+ * costs the wait. When disabled the value is simply computed and cached locally.
+ */
+@Component
+public class ClusterSingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterSingleFlight.class);
+
+    private static final String LOCK_PREFIX = "routes:computing:";
+    private static final String TOPIC = "routes:computed";
+
+    private final RedissonClient redissonClient;
+    private final boolean enabled;
+    private final long leaseMillis;
+    private final long waitMillis;
+    private final ConcurrentMap<String, CompletableFuture<Void>> waiting = new ConcurrentHashMap<>();
+    private final RTopic topic;
+    private final int listenerId;
+
+    public ClusterSingleFlight(ObjectProvider<RedissonClient> redissonClient,
+                               @Value("${route.cluster-single-flight.enabled:false}") boolean enabled,
+                               @Value("${route.cluster-single-flight.lease-ms:10000}") long leaseMillis,
+                               @Value("${route.cluster-single-flight.wait-ms:2000}") long waitMillis) {
+        this.enabled = enabled;
+        this.leaseMillis = leaseMillis;
+        this.waitMillis = waitMillis;
+        if (enabled) {
+            this.redissonClient = redissonClient.getObject();
+            this.topic = this.redissonClient.getTopic(TOPIC);
+            this.listenerId = topic.addListener(String.class, (channel, key) -> {
+                CompletableFuture<Void> signal = waiting.remove(key);
+                if (signal != null) {
+                    signal.complete(null);
+                }
+            });
+        } else {
+            this.redissonClient = null;
+            this.topic = null;
+            this.listenerId = -1;
+        }
+    }
+
+    /**
+     * Returns the value computed for the key, after making sure it is stored in the cache if there is one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T compute(String key, Cache cache, Supplier<T> computation) {
+        if (!enabled || cache == null) {
+            return computeAndCache(key, cache, computation);
+        }
+
+        RLock lock = redissonClient.getLock(LOCK_PREFIX + key);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(0, leaseMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not take cluster lock for {}, computing locally: {}", key, ex.getMessage());
+            return computeAndCache(key, cache, computation);
+        }
+
+        if (locked) {
+            try {
+                Cache.ValueWrapper cached = ReadFailureCacheErrorHandler.get(cache, key);
+                if (cached != null) {
+                    return (T) cached.get();
+                }
+                T value = computeAndCache(key, cache, computation);
+                topic.publish(key);
+                return value;
+            } finally {
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        }
+
+        Cache.ValueWrapper cached = awaitOtherNode(key, cache);
+        if (cached != null) {
+            logger.debug("Using routes for {} computed by another instance", key);
+            return (T) cached.get();
+        }
+        logger.debug("Timed out waiting for another instance to compute {}, computing locally", key);
+        return computeAndCache(key, cache, computation);
+    }
+
+    private Cache.ValueWrapper awaitOtherNode(String key, Cache cache) {
+        CompletableFuture<Void> signal = waiting.computeIfAbsent(key, k -> new CompletableFuture<>());
+        try {
+            // The leader may have finished before the signal was registered.
+            Cache.ValueWrapper cached = ReadFailureCacheErrorHandler.get(cache, key);
+            if (cached != null) {
+                return cached;
+            }
+            signal.get(waitMillis, TimeUnit.MILLISECONDS);
+            return ReadFailureCacheErrorHandler.get(cache, key);
+        } catch (TimeoutException ex) {
+            return ReadFailureCacheErrorHandler.get(cache, key);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception ex) {
+            logger.warn("Error waiting for routes of {}: {}", key, ex.getMessage());
+            return null;
+        } finally {
+            waiting.remove(key, signal);
+        }
+    }
+
+    private static <T> T computeAndCache(String key, Cache cache, Supplier<T> computation) {
+        T value = computation.get();
+        if (cache != null) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (topic != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+}
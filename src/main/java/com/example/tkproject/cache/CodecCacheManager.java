@@ -0,0 +1,64 @@
+package com.example.tkproject.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.redisson.api.RMap;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.spring.cache.CacheConfig;
+import org.redisson.spring.cache.RedissonSpringCacheManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link RedissonSpringCacheManager} that can store each cache with its own codec,
+ * falling back to the codec of the Redisson client for caches without one. When given a {@link MeterRegistry},
+ * it records the size of every value written to Redis as {@code cache.payload.size}, tagged with the cache name.
+ */
+public class CodecCacheManager extends RedissonSpringCacheManager {
+
+    private final RedissonClient redissonClient;
+    private final Codec defaultCodec;
+    private final Map<String, Codec> codecs;
+    private final MeterRegistry payloadMeterRegistry;
+    private final ConcurrentMap<String, Codec> storageCodecs = new ConcurrentHashMap<>();
+
+    /**
+     * @param payloadMeterRegistry registry of the payload size metric, or {@code null} not to record it
+     */
+    public CodecCacheManager(RedissonClient redissonClient, Map<String, ? extends CacheConfig> config,
+                             Map<String, Codec> codecs, MeterRegistry payloadMeterRegistry) {
+        super(redissonClient, config, redissonClient.getConfig().getCodec());
+        this.redissonClient = redissonClient;
+        this.defaultCodec = redissonClient.getConfig().getCodec();
+        this.codecs = Map.copyOf(codecs);
+        this.payloadMeterRegistry = payloadMeterRegistry;
+    }
+
+    public Codec codecFor(String name) {
+        return codecs.getOrDefault(name, defaultCodec);
+    }
+
+    @Override
+    protected RMap<Object, Object> getMap(String name, CacheConfig config) {
+        return redissonClient.getMap(name, storageCodec(name));
+    }
+
+    @Override
+    protected RMapCache<Object, Object> getMapCache(String name, CacheConfig config) {
+        return redissonClient.getMapCache(name, storageCodec(name));
+    }
+
+    private Codec storageCodec(String name) {
+        if (payloadMeterRegistry == null) {
+            return codecFor(name);
+        }
+        return storageCodecs.computeIfAbsent(name, n -> new PayloadSizeCodec(codecFor(n),
+                DistributionSummary.builder("cache.payload.size").tag("cache", n).baseUnit("bytes")
+                        .description("Serialized size of the values stored in the cache")
+                        .publishPercentileHistogram().register(payloadMeterRegistry)));
+    }
+}
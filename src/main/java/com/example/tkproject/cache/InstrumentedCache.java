@@ -0,0 +1,154 @@
+package com.example.tkproject.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Cache} recording metrics about the cache it delegates to, see {@link InstrumentedCacheManager}.
+ */
+class InstrumentedCache implements Cache {
+
+    private final Cache delegate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Timer hitLatency;
+    private final Timer missLatency;
+    private final Timer putLatency;
+
+    InstrumentedCache(Cache delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        String name = delegate.getName();
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit")
+                .description("Cache lookups that found a value").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss")
+                .description("Cache lookups that found no value").register(meterRegistry);
+        this.puts = Counter.builder("cache.puts").tag("cache", name)
+                .description("Values stored in the cache").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", name)
+                .description("Explicit evictions and clears of the cache").register(meterRegistry);
+        this.hitLatency = Timer.builder("cache.get.latency").tag("cache", name).tag("result", "hit")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.missLatency = Timer.builder("cache.get.latency").tag("cache", name).tag("result", "miss")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.putLatency = Timer.builder("cache.put.latency").tag("cache", name)
+                .publishPercentileHistogram().register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper value = delegate.get(key);
+        recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        long start = System.nanoTime();
+        T value = delegate.get(key, type);
+        recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = {false};
+        long start = System.nanoTime();
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        recordGet(start, !loaded[0]);
+        if (loaded[0]) {
+            puts.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        delegate.put(key, value);
+        putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (existing == null) {
+            puts.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        evictions.increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        if (evicted) {
+            evictions.increment();
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        evictions.increment();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        evictions.increment();
+        return invalidated;
+    }
+
+    private void recordGet(long start, boolean hit) {
+        long elapsed = System.nanoTime() - start;
+        if (hit) {
+            hits.increment();
+            hitLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        } else {
+            misses.increment();
+            missLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.tkproject.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Cache} keeping entries of another cache in local memory, see {@link NearCacheManager}. Local entries
+ * are keyed by the string form of the cache key, the form invalidations are exchanged in. Reads and writes of the
+ * local entries are lock-free; once more than {@code maxEntries} are kept, an arbitrary tenth of them is dropped
+ * and read from the delegate again on demand.
+ * <p>
+ * Writes of keys prefixed with a network version, like {@code v12_...}, are not announced to the other
+ * instances: such a key is only ever written with the same value, so their local copies cannot be stale.
+ */
+class NearCache implements Cache {
+
+    private final Cache delegate;
+    private final NearCacheManager manager;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ConcurrentMap<String, Entry> local = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    // Bumped on every invalidation, so a value read from the delegate while it ran is not kept locally.
+    private final AtomicLong generation = new AtomicLong();
+
+    NearCache(Cache delegate, NearCacheManager manager, int maxEntries, long ttlMillis) {
+        this.delegate = delegate;
+        this.manager = manager;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper cached = getLocal(localKey);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = generation();
+        ValueWrapper value = delegate.get(key);
+        if (value != null) {
+            putLocal(localKey, value, seen);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper cached = getLocal(localKey);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long seen = generation();
+        T value = delegate.get(key, valueLoader);
+        putLocal(localKey, new SimpleValueWrapper(value), seen);
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        delegate.put(key, value);
+        long seen = invalidateLocal(localKey);
+        putLocal(localKey, new SimpleValueWrapper(value), seen);
+        publishWrite(localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = localKey(key);
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            long seen = invalidateLocal(localKey);
+            putLocal(localKey, new SimpleValueWrapper(value), seen);
+            publishWrite(localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        delegate.evict(key);
+        invalidateLocal(localKey);
+        manager.publishInvalidation(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        boolean evicted = delegate.evictIfPresent(key);
+        invalidateLocal(localKey);
+        manager.publishInvalidation(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        clearLocal();
+        manager.publishInvalidation(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        clearLocal();
+        manager.publishInvalidation(getName(), null);
+        return invalidated;
+    }
+
+    void evictLocal(String localKey) {
+        invalidateLocal(localKey);
+    }
+
+    void clearLocal() {
+        generation.incrementAndGet();
+        local.clear();
+    }
+
+    int localSize() {
+        return local.size();
+    }
+
+    // The generation is bumped before the entry is removed, so a concurrent putLocal either sees the new
+    // generation or stores its entry early enough to be removed here.
+    private long invalidateLocal(String localKey) {
+        long next = generation.incrementAndGet();
+        local.remove(localKey);
+        return next;
+    }
+
+    private long generation() {
+        return generation.get();
+    }
+
+    private ValueWrapper getLocal(String localKey) {
+        Entry entry = local.get(localKey);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt > ttlNanos) {
+            local.remove(localKey, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private void putLocal(String localKey, ValueWrapper value, long seenGeneration) {
+        if (generation.get() != seenGeneration) {
+            return;
+        }
+        Entry entry = new Entry(value, System.nanoTime());
+        local.put(localKey, entry);
+        if (generation.get() != seenGeneration) {
+            // Invalidated while storing it
+            local.remove(localKey, entry);
+        } else if (local.size() > maxEntries) {
+            evict();
+        }
+    }
+
+    // One thread at a time trims the local entries to nine tenths of the bound; the others keep serving them meanwhile
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = local.size() - (maxEntries - maxEntries / 10);
+            Iterator<String> keys = local.keySet().iterator();
+            while (excess-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void publishWrite(String localKey) {
+        if (!isVersioned(localKey)) {
+            manager.publishInvalidation(getName(), localKey);
+        }
+    }
+
+    /**
+     * Whether a key starts with a network version prefix such as {@code v12_}.
+     */
+    private static boolean isVersioned(String localKey) {
+        int i = 1;
+        while (i < localKey.length() && Character.isDigit(localKey.charAt(i))) {
+            i++;
+        }
+        return localKey.startsWith("v") && i > 1 && i < localKey.length() && localKey.charAt(i) == '_';
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private static final class Entry {
+        final ValueWrapper value;
+        final long storedAt;
+
+        Entry(ValueWrapper value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.tkproject.cache;
+
+import org.redisson.api.RTopic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Puts a bounded in-process cache in front of the caches of another {@link CacheManager}, usually the Redis one.
+ * <p>
+ * Reads are served from local memory when possible and fall through to the delegate otherwise. Every put,
+ * evict and clear is written to the delegate and announced on a Redis topic, so the other instances drop their
+ * local copy and read the new value from Redis on their next access; only puts of network-versioned keys, which
+ * cannot go stale, are not announced. Local entries also expire after
+ * {@code ttlMillis}, which bounds the staleness if an invalidation message is lost. Values are shared between
+ * callers and must not be modified.
+ */
+public class NearCacheManager implements CacheManager, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheManager.class);
+
+    public static final String TOPIC = "cache:invalidations";
+
+    private static final String SEPARATOR = "\t";
+
+    private final CacheManager delegate;
+    private final RTopic topic;
+    private final Set<String> cacheNames;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, NearCache> caches = new ConcurrentHashMap<>();
+    private final int listenerId;
+
+    /**
+     * @param topic      topic the invalidations are exchanged on, or {@code null} for a single instance
+     * @param cacheNames names of the caches to put a near cache in front of; other caches are returned as is
+     */
+    public NearCacheManager(CacheManager delegate, RTopic topic, Set<String> cacheNames, int maxEntries, long ttlMillis) {
+        this.delegate = delegate;
+        this.topic = topic;
+        this.cacheNames = Set.copyOf(cacheNames);
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.listenerId = topic == null ? -1 : topic.addListener(String.class, (channel, message) -> onInvalidation(message));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache target = delegate.getCache(name);
+        if (target == null || !cacheNames.contains(name)) {
+            return target;
+        }
+        return caches.computeIfAbsent(name, n -> new NearCache(target, this, maxEntries, ttlMillis));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Tells the other instances to drop their local copy of a key, or of the whole cache when the key is {@code null}.
+     */
+    void publishInvalidation(String cacheName, String key) {
+        if (topic == null) {
+            return;
+        }
+        String message = nodeId + SEPARATOR + cacheName + (key == null ? "" : SEPARATOR + key);
+        topic.publishAsync(message).whenComplete((receivers, ex) -> {
+            if (ex != null) {
+                logger.warn("Could not publish invalidation of {} {}: {}", cacheName, key, ex.getMessage());
+            }
+        });
+    }
+
+    void onInvalidation(String message) {
+        String[] parts = message.split(SEPARATOR, 3);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        NearCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 2) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (topic != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tkproject.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.netty.buffer.ByteBuf;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+
+/**
+ * Encodes values with another codec and records the size of every encoded value, so the payload size of a cache
+ * is taken from the bytes actually written to Redis rather than from encoding each value a second time.
+ */
+class PayloadSizeCodec extends BaseCodec {
+
+    private final Codec inner;
+    private final DistributionSummary payloadSize;
+    private final Encoder encoder = this::encode;
+
+    PayloadSizeCodec(Codec inner, DistributionSummary payloadSize) {
+        this.inner = inner;
+        this.payloadSize = payloadSize;
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return inner.getValueDecoder();
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return inner.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return inner.getMapKeyEncoder();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return inner.getClassLoader();
+    }
+
+    private ByteBuf encode(Object value) throws IOException {
+        ByteBuf encoded = inner.getValueEncoder().encode(value);
+        payloadSize.record(encoded.readableBytes());
+        return encoded;
+    }
+
+    @Override
+    public String toString() {
+        return inner.toString();
+    }
+}
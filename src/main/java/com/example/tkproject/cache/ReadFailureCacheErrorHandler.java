@@ -0,0 +1,40 @@
+package com.example.tkproject.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleCacheErrorHandler;
+
+/**
+ * Treats a cache read that fails as a miss instead of failing the request.
+ * <p>
+ * Reads mostly fail on entries written with another codec, for example JSON entries left in Redis after
+ * switching a cache to smile. The value is then loaded again and its put overwrites the unreadable entry,
+ * so the cache heals itself as keys are requested. Errors on put, evict and clear are still rethrown.
+ * Code reading a cache directly uses {@link #get(Cache, Object)} for the same behaviour.
+ */
+public class ReadFailureCacheErrorHandler extends SimpleCacheErrorHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadFailureCacheErrorHandler.class);
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        logReadFailure(exception, cache, key);
+    }
+
+    /**
+     * Reads {@code key} from {@code cache}, returning {@code null} like a miss if the entry cannot be read.
+     */
+    public static Cache.ValueWrapper get(Cache cache, Object key) {
+        try {
+            return cache.get(key);
+        } catch (RuntimeException ex) {
+            logReadFailure(ex, cache, key);
+            return null;
+        }
+    }
+
+    private static void logReadFailure(RuntimeException exception, Cache cache, Object key) {
+        logger.warn("Could not read {} from cache {}, treating it as a miss: {}", key, cache.getName(), exception.getMessage());
+    }
+}
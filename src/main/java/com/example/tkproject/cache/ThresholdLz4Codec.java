@@ -0,0 +1,141 @@
+package com.example.tkproject.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses values encoded by another codec with LZ4 once they reach a size threshold.
+ * <p>
+ * Every value starts with a flag byte. Small values follow it as encoded by the inner codec, because compressing
+ * them costs more CPU than it saves bytes. Larger values are stored as their uncompressed length followed by the
+ * LZ4 block. Map keys are left to the inner codec, so they stay readable and comparable.
+ * <p>
+ * Values written by another codec, or corrupted ones, fail to decode with an {@link IOException}: the flag byte and
+ * the length are checked before anything is decompressed, and the block is only read with the bounds-checked LZ4
+ * decompressor, so such values can be treated as cache misses.
+ */
+public class ThresholdLz4Codec extends BaseCodec {
+
+    private static final byte RAW = 0;
+    private static final byte COMPRESSED = 1;
+    // LZ4 cannot expand a block by more than this ratio
+    private static final int MAX_COMPRESSION_RATIO = 255;
+    private static final int MAX_DECOMPRESSED_BYTES = 64 * 1024 * 1024;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final Codec inner;
+    private final int thresholdBytes;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+
+    private final Encoder encoder = this::encode;
+    private final Decoder<Object> decoder = this::decode;
+
+    public ThresholdLz4Codec(Codec inner, int thresholdBytes) {
+        this.inner = inner;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return inner.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return inner.getMapKeyEncoder();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return inner.getClassLoader();
+    }
+
+    private ByteBuf encode(Object value) throws IOException {
+        ByteBuf encoded = inner.getValueEncoder().encode(value);
+        try {
+            int length = encoded.readableBytes();
+            if (length < thresholdBytes) {
+                ByteBuf out = ByteBufAllocator.DEFAULT.buffer(1 + length);
+                out.writeByte(RAW);
+                out.writeBytes(encoded);
+                return out;
+            }
+            int maxLength = compressor.maxCompressedLength(length);
+            ByteBuf out = ByteBufAllocator.DEFAULT.buffer(5 + maxLength);
+            out.writeByte(COMPRESSED);
+            out.writeInt(length);
+            ByteBuffer source = encoded.nioBuffer();
+            ByteBuffer target = out.nioBuffer(out.writerIndex(), maxLength);
+            int compressed = compressor.compress(source, source.position(), length, target, target.position(), maxLength);
+            out.writerIndex(out.writerIndex() + compressed);
+            return out;
+        } finally {
+            encoded.release();
+        }
+    }
+
+    private Object decode(ByteBuf buf, State state) throws IOException {
+        if (!buf.isReadable()) {
+            throw new IOException("Empty LZ4 cache value");
+        }
+        byte flag = buf.readByte();
+        if (flag == RAW) {
+            return inner.getValueDecoder().decode(buf, state);
+        }
+        if (flag != COMPRESSED || buf.readableBytes() < 5) {
+            throw new IOException("Not an LZ4 cache value, flag byte " + flag);
+        }
+        int length = buf.readInt();
+        int compressedLength = buf.readableBytes();
+        if (length <= 0 || length > MAX_DECOMPRESSED_BYTES || length > (long) compressedLength * MAX_COMPRESSION_RATIO) {
+            throw new IOException("Invalid LZ4 cache value length " + length + " for " + compressedLength + " compressed bytes");
+        }
+        ByteBuf decompressed = ByteBufAllocator.DEFAULT.buffer(length);
+        try {
+            ByteBuffer source = buf.nioBuffer();
+            ByteBuffer target = decompressed.nioBuffer(0, length);
+            int written;
+            try {
+                written = decompressor.decompress(source, source.position(), compressedLength, target, target.position(), length);
+            } catch (LZ4Exception ex) {
+                throw new IOException("Corrupt LZ4 cache value", ex);
+            }
+            if (written != length) {
+                throw new IOException("LZ4 cache value decompressed to " + written + " bytes, expected " + length);
+            }
+            decompressed.writerIndex(length);
+            return inner.getValueDecoder().decode(decompressed, state);
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return inner + "+lz4(" + thresholdBytes + ")";
+    }
+}
@@ -1,27 +1,60 @@
 package com.example.tkproject.config;
 
+import com.example.tkproject.cache.CacheCodecs;
+import com.example.tkproject.cache.CodecCacheManager;
+import com.example.tkproject.cache.InstrumentedCacheManager;
+import com.example.tkproject.cache.NearCacheManager;
+import com.example.tkproject.cache.ReadFailureCacheErrorHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.redisson.api.RedissonClient;
-import org.redisson.spring.cache.RedissonSpringCacheManager;
+import org.redisson.client.codec.Codec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Configuration
-public class CacheConfig {
+public class CacheConfig implements CachingConfigurer {
+
+    // Entries written with a previous codec fail to decode, so they are reloaded instead of failing the request
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new ReadFailureCacheErrorHandler();
+    }
 
     @Bean
-    public CacheManager cacheManager(RedissonClient redissonClient) {
+    public CacheManager cacheManager(RedissonClient redissonClient,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${cache.metrics.payload-size.enabled:true}") boolean payloadSizeEnabled,
+                                     @Value("${cache.near.enabled:true}") boolean nearCacheEnabled,
+                                     @Value("${cache.near.caches:locationsCache,transportationsCache,routesCache}") Set<String> nearCaches,
+                                     @Value("${cache.near.max-entries:1000}") int nearMaxEntries,
+                                     @Value("${cache.near.ttl-ms:30000}") long nearTtlMillis,
+                                     @Value("${cache.routes.ttl-ms:3600000}") long routesTtlMillis,
+                                     @Value("${cache.routes.max-idle-ms:1800000}") long routesMaxIdleMillis,
+                                     @Value("#{${cache.codecs:{:}}}") Map<String, String> codecNames,
+                                     @Value("${cache.codec.lz4-threshold-bytes:2048}") int lz4ThresholdBytes) {
         Map<String, org.redisson.spring.cache.CacheConfig> config = new HashMap<String, org.redisson.spring.cache.CacheConfig>();
 
-        config.put("routesCache", new org.redisson.spring.cache.CacheConfig(60000, 300000));
+        // Route keys carry the network version, so routes never go stale and can live much longer
+        config.put("routesCache", new org.redisson.spring.cache.CacheConfig(routesTtlMillis, routesMaxIdleMillis));
         config.put("locationsCache", new org.redisson.spring.cache.CacheConfig(60000, 300000));
         config.put("transportationsCache", new org.redisson.spring.cache.CacheConfig(60000, 300000));
-        config.put("availableTransportsCache", new org.redisson.spring.cache.CacheConfig(60000, 300000));
-        config.put("adjacencyListCache", new org.redisson.spring.cache.CacheConfig(60000, 300000));
 
-        return new RedissonSpringCacheManager(redissonClient, config);
+        Map<String, Codec> codecs = new HashMap<>();
+        codecNames.forEach((cache, codec) -> codecs.put(cache, CacheCodecs.create(codec, lz4ThresholdBytes)));
+        CacheManager cacheManager = new CodecCacheManager(redissonClient, config, codecs,
+                payloadSizeEnabled ? meterRegistry : null);
+        if (nearCacheEnabled) {
+            cacheManager = new NearCacheManager(cacheManager, redissonClient.getTopic(NearCacheManager.TOPIC),
+                    nearCaches, nearMaxEntries, nearTtlMillis);
+        }
+        return new InstrumentedCacheManager(cacheManager, meterRegistry);
     }
 }
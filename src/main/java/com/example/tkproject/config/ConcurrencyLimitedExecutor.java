@@ -0,0 +1,54 @@
+package com.example.tkproject.config;
+
+import com.example.tkproject.exception.ServiceOverloadedException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks on another executor, at most {@code limit} at a time. A task over the limit is rejected right away
+ * with a {@link ServiceOverloadedException}, answered with a 503 and Retry-After, instead of blocking the
+ * submitting request thread until a running task finishes.
+ */
+public class ConcurrencyLimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitedExecutor(Executor delegate, int limit, long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(limit);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new ServiceOverloadedException("Too many route searches running, please retry later", retryAfterSeconds);
+        }
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable release = () -> {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        };
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    release.run();
+                }
+            });
+        } catch (RuntimeException ex) {
+            release.run();
+            throw ex;
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.tkproject.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Derives {@code spring.threads.virtual.enabled} from {@code route.execution.mode}, so the virtual mode also
+ * handles the blocking servlet requests on virtual threads and not only the route searches. The derived value
+ * has the lowest precedence, so setting {@code spring.threads.virtual.enabled} explicitly still wins.
+ */
+public class ExecutionModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String PROPERTY_SOURCE = "routeExecutionMode";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        boolean virtual = "virtual".equals(environment.getProperty("route.execution.mode", "platform"));
+        environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE,
+                Map.of("spring.threads.virtual.enabled", String.valueOf(virtual))));
+    }
+}
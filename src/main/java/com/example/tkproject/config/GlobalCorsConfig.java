@@ -1,5 +1,6 @@
 package com.example.tkproject.config;
 
+import com.example.tkproject.controller.RouteController;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -12,6 +13,7 @@ public class GlobalCorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(RouteController.NEXT_CURSOR_HEADER)
                 .allowCredentials(true);
     }
 }
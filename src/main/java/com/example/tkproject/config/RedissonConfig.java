@@ -1,13 +1,16 @@
 package com.example.tkproject.config;
 
+import com.example.tkproject.service.graph.RouteSearchMetrics;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.codec.JsonJacksonCodec;
 import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
@@ -31,14 +34,36 @@ public class RedissonConfig {
     }
 
     @Bean(name = "asyncExecutor")
-    public Executor asyncExecutor() {
+    @ConditionalOnProperty(name = "route.execution.mode", havingValue = "platform", matchIfMissing = true)
+    public Executor asyncExecutor(RouteSearchMetrics routeSearchMetrics) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("AsyncRoute-");
+        executor.setTaskDecorator(routeSearchMetrics.queueWaitDecorator());
         executor.initialize();
 
         return new DelegatingSecurityContextExecutor(executor);
     }
+
+    /**
+     * Runs every route search on its own virtual thread, so searches blocked on JDBC or Redis do not hold
+     * a pool thread. Instead of a bounded queue, at most {@code concurrencyLimit} searches run at once and
+     * further submissions are rejected right away with a 503, like the admission limiter does; the limit
+     * defaults to the limiter's max-limit so it only caps what the limiter would already let through.
+     */
+    @Bean(name = "asyncExecutor")
+    @ConditionalOnProperty(name = "route.execution.mode", havingValue = "virtual")
+    public Executor virtualThreadAsyncExecutor(
+            RouteSearchMetrics routeSearchMetrics,
+            @Value("${route.execution.virtual.concurrency-limit:${route.admission.max-limit:500}}") int concurrencyLimit,
+            @Value("${route.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("AsyncRoute-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(routeSearchMetrics.queueWaitDecorator());
+
+        return new DelegatingSecurityContextExecutor(
+                new ConcurrencyLimitedExecutor(executor, concurrencyLimit, retryAfterSeconds));
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.tkproject.config;
+
+import com.example.tkproject.service.graph.RouteRules;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RouteRulesConfig {
+
+    @Bean
+    public RouteRules routeRules(@Value("${route.rules.max-legs:3}") int maxLegs,
+                                 @Value("${route.rules.min-flights:1}") int minFlights,
+                                 @Value("${route.rules.max-flights:1}") int maxFlights,
+                                 @Value("${route.rules.max-consecutive-transfers:1}") int maxConsecutiveTransfers,
+                                 @Value("${route.rules.allowed-types:}") String allowedTypes) {
+        return new RouteRules(maxLegs, minFlights, maxFlights, maxConsecutiveTransfers,
+                RouteRules.parseAllowedTypes(allowedTypes));
+    }
+}
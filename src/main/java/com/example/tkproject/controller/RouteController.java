@@ -2,21 +2,43 @@ package com.example.tkproject.controller;
 
 import com.example.tkproject.dto.ApiResponse;
 import com.example.tkproject.dto.LocationDTO;
+import com.example.tkproject.dto.RouteBatchRequestDTO;
+import com.example.tkproject.dto.RouteBatchResultDTO;
+import com.example.tkproject.dto.RouteCalendarDTO;
+import com.example.tkproject.dto.RouteDestinationDTO;
+import com.example.tkproject.dto.RouteQuery;
 import com.example.tkproject.dto.TransportationResponseDTO;
+import com.example.tkproject.exception.InvalidRequestException;
+import com.example.tkproject.service.AdmissionLimiter;
 import com.example.tkproject.service.LocationService;
+import com.example.tkproject.model.enums.RouteSortOrder;
 import com.example.tkproject.service.RouteService;
+import com.example.tkproject.util.CursorUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Validated
 @CrossOrigin(origins = "http://localhost:3000")
@@ -26,30 +48,54 @@ public class RouteController {
 
     private static final Logger logger = LoggerFactory.getLogger(RouteController.class);
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_CALENDAR_DAYS = 366;
+    private static final int STREAM_BUFFER_BYTES = 8192;
+    private static final int STREAM_FLUSH_EVERY = 16;
+
     private final RouteService routeService;
     private final LocationService locationService;
+    private final ObjectMapper objectMapper;
+    private final AdmissionLimiter admissionLimiter;
 
-    public RouteController(RouteService routeService, LocationService locationService) {
+    public RouteController(RouteService routeService, LocationService locationService, ObjectMapper objectMapper,
+                           AdmissionLimiter admissionLimiter) {
         this.routeService = routeService;
         this.locationService = locationService;
+        this.objectMapper = objectMapper;
+        this.admissionLimiter = admissionLimiter;
     }
 
     /**
      * GET endpoint to retrieve valid routes.
      * Returns a CompletableFuture for non-blocking behavior.
+     * With a limit only the best {@code limit} routes are returned, and the cursor of the
+     * next page, if any, is sent in the {@value #NEXT_CURSOR_HEADER} header.
+     * With a max detour ratio, routes longer than that multiple of the straight-line distance are left out.
      */
     @GetMapping
     public CompletableFuture<ResponseEntity<ApiResponse<List<List<TransportationResponseDTO>>>>> getRoutes(
             @RequestParam @NotNull(message = "Origin id must not be blank") Long originId,
             @RequestParam @NotNull(message = "Destination id must not be blank") Long destinationId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tripDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tripDate,
+            @RequestParam(required = false) @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 1000, message = "Limit must be at most 1000") Integer limit,
+            @RequestParam(defaultValue = "DISTANCE") RouteSortOrder sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DecimalMin(value = "1.0", message = "Max detour ratio must be at least 1")
+            Double maxDetourRatio) {
 
         logger.info("Fetching routes from {} to {} for date {}", originId, destinationId, tripDate);
-        return routeService.findRoutes(originId, destinationId, tripDate)
-                .thenApply(routes -> {
-                    logger.debug("Found {} routes", routes.size());
+        RouteQuery query = new RouteQuery(originId, destinationId, tripDate, sortBy, limit,
+                CursorUtil.decodeOffset(cursor), maxDetourRatio);
+        return admitted(() -> routeService.findRoutes(query))
+                .thenApply(page -> {
+                    logger.debug("Found {} routes", page.getRoutes().size());
                     ApiResponse<List<List<TransportationResponseDTO>>> response =
-                            new ApiResponse<>(HttpStatus.OK.value(), "Routes fetched successfully", routes);
+                            new ApiResponse<>(HttpStatus.OK.value(), "Routes fetched successfully", page.getRoutes());
+                    if (page.getNextCursor() != null) {
+                        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, page.getNextCursor()).body(response);
+                    }
                     return ResponseEntity.ok(response);
                 })
                 .exceptionally(ex -> {
@@ -61,6 +107,164 @@ public class RouteController {
                 });
     }
 
+    /**
+     * GET endpoint streaming the routes of a search as newline-delimited JSON, one route per line in the
+     * requested order. The search runs before the response starts, so errors still get a proper status; no
+     * route is final in that order before the search has seen all of them anyway. Then routes are converted and
+     * written one at a time through a bounded buffer flushed every {@value #STREAM_FLUSH_EVERY} routes. The admission permit is held until the last route has been written,
+     * so streams count against the limit for as long as they convert and write routes.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRoutes(
+            @RequestParam @NotNull(message = "Origin id must not be blank") Long originId,
+            @RequestParam @NotNull(message = "Destination id must not be blank") Long destinationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tripDate,
+            @RequestParam(required = false) @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 1000, message = "Limit must be at most 1000") Integer limit,
+            @RequestParam(defaultValue = "DISTANCE") RouteSortOrder sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DecimalMin(value = "1.0", message = "Max detour ratio must be at least 1")
+            Double maxDetourRatio) {
+
+        logger.info("Streaming routes from {} to {} for date {}", originId, destinationId, tripDate);
+        RouteQuery query = new RouteQuery(originId, destinationId, tripDate, sortBy, limit,
+                CursorUtil.decodeOffset(cursor), maxDetourRatio);
+        Stream<List<TransportationResponseDTO>> routes;
+        AdmissionLimiter.Permit permit = admissionLimiter.acquire();
+        try {
+            routes = routeService.streamRoutes(query);
+        } catch (RuntimeException ex) {
+            permit.release(false);
+            throw ex;
+        }
+        StreamingResponseBody body = out -> {
+            boolean success = false;
+            try {
+                OutputStream buffered = new BufferedOutputStream(out, STREAM_BUFFER_BYTES);
+                int written = 0;
+                for (Iterator<List<TransportationResponseDTO>> it = routes.iterator(); it.hasNext(); ) {
+                    buffered.write(objectMapper.writeValueAsBytes(it.next()));
+                    buffered.write('\n');
+                    if (++written % STREAM_FLUSH_EVERY == 0) {
+                        buffered.flush();
+                    }
+                }
+                buffered.flush();
+                success = true;
+                logger.debug("Streamed {} routes", written);
+            } finally {
+                permit.release(success);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * GET endpoint to retrieve the routes between two locations for every date of a range, in date order.
+     * Routes are computed once per weekday and shared by all dates of that weekday.
+     */
+    @GetMapping("/calendar")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<RouteCalendarDTO>>>> getRoutesCalendar(
+            @RequestParam @NotNull(message = "Origin id must not be blank") Long originId,
+            @RequestParam @NotNull(message = "Destination id must not be blank") Long destinationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 1000, message = "Limit must be at most 1000") Integer limit,
+            @RequestParam(defaultValue = "DISTANCE") RouteSortOrder sortBy) {
+
+        logger.info("Fetching routes from {} to {} between {} and {}", originId, destinationId, fromDate, toDate);
+        if (toDate.isBefore(fromDate)) {
+            throw new InvalidRequestException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_CALENDAR_DAYS) {
+            throw new InvalidRequestException("Date range must not exceed " + MAX_CALENDAR_DAYS + " days");
+        }
+        return admitted(() -> routeService.findRoutesRange(originId, destinationId, fromDate, toDate, sortBy, limit))
+                .thenApply(calendar -> {
+                    logger.debug("Found routes for {} dates", calendar.size());
+                    ApiResponse<List<RouteCalendarDTO>> response =
+                            new ApiResponse<>(HttpStatus.OK.value(), "Routes fetched successfully", calendar);
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(ex -> {
+                    logger.error("Error fetching calendar routes: {}", ex.getMessage(), ex);
+                    ApiResponse<List<RouteCalendarDTO>> errorResponse =
+                            new ApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                                    "Error fetching routes: " + ex.getMessage(), null);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+                });
+    }
+
+    /**
+     * POST endpoint to retrieve the routes of many (origin, destination, date) queries in one call.
+     * Results are returned in the order of the queries.
+     */
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<RouteBatchResultDTO>>>> getRoutesBatch(
+            @Valid @RequestBody RouteBatchRequestDTO request) {
+
+        logger.info("Fetching routes for a batch of {} queries", request.getQueries().size());
+        return admitted(() -> routeService.findRoutesBatch(request))
+                .thenApply(results -> {
+                    logger.debug("Answered {} batch queries", results.size());
+                    ApiResponse<List<RouteBatchResultDTO>> response =
+                            new ApiResponse<>(HttpStatus.OK.value(), "Routes fetched successfully", results);
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(ex -> {
+                    logger.error("Error fetching batch routes: {}", ex.getMessage(), ex);
+                    ApiResponse<List<RouteBatchResultDTO>> errorResponse =
+                            new ApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                                    "Error fetching routes: " + ex.getMessage(), null);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+                });
+    }
+
+    /**
+     * GET endpoint to retrieve the routes from one origin to every reachable destination, grouped by destination.
+     * With {@code bestOnly} only the best route of each destination and its distance are returned.
+     */
+    @GetMapping("/from/{originId}")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<RouteDestinationDTO>>>> getRoutesFrom(
+            @PathVariable Long originId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tripDate,
+            @RequestParam(defaultValue = "DISTANCE") RouteSortOrder sortBy,
+            @RequestParam(defaultValue = "false") boolean bestOnly) {
+
+        logger.info("Fetching routes from {} to every destination for date {}", originId, tripDate);
+        return admitted(() -> routeService.findRoutesFrom(originId, tripDate, sortBy, bestOnly))
+                .thenApply(results -> {
+                    logger.debug("Found routes to {} destinations", results.size());
+                    ApiResponse<List<RouteDestinationDTO>> response =
+                            new ApiResponse<>(HttpStatus.OK.value(), "Routes fetched successfully", results);
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(ex -> {
+                    logger.error("Error fetching routes from {}: {}", originId, ex.getMessage(), ex);
+                    ApiResponse<List<RouteDestinationDTO>> errorResponse =
+                            new ApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                                    "Error fetching routes: " + ex.getMessage(), null);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+                });
+    }
+
+    /**
+     * Starts a search once the admission limiter lets it in and releases the permit when the search completes.
+     * Searches over the limit fail fast with a 503 and a Retry-After header.
+     */
+    private <T> CompletableFuture<T> admitted(Supplier<CompletableFuture<T>> search) {
+        AdmissionLimiter.Permit permit = admissionLimiter.acquire();
+        CompletableFuture<T> future;
+        try {
+            future = search.get();
+        } catch (RuntimeException ex) {
+            permit.release(false);
+            throw ex;
+        }
+        return future.whenComplete((result, ex) -> permit.release(ex == null));
+    }
+
     @GetMapping("/locations")
     public ResponseEntity<ApiResponse<List<LocationDTO>>> getAllLocations() {
         try {
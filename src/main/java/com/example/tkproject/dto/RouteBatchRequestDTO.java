@@ -0,0 +1,46 @@
+package com.example.tkproject.dto;
+
+import com.example.tkproject.model.enums.RouteSortOrder;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteBatchRequestDTO {
+
+    @NotEmpty(message = "Queries must not be empty")
+    @Size(max = 500, message = "At most 500 queries are allowed per batch")
+    private List<@Valid @NotNull(message = "Query must not be null") Query> queries;
+
+    private RouteSortOrder sortBy = RouteSortOrder.DISTANCE;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 1000, message = "Limit must be at most 1000")
+    private Integer limit;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Query {
+
+        @NotNull(message = "Origin id must not be blank")
+        private Long originId;
+
+        @NotNull(message = "Destination id must not be blank")
+        private Long destinationId;
+
+        @NotNull(message = "Trip date must not be blank")
+        private LocalDate tripDate;
+    }
+}
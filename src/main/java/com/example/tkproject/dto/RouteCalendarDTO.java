@@ -0,0 +1,16 @@
+package com.example.tkproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteCalendarDTO {
+    private LocalDate tripDate;
+    private List<List<TransportationResponseDTO>> routes;
+}
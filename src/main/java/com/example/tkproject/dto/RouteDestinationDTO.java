@@ -0,0 +1,19 @@
+package com.example.tkproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteDestinationDTO {
+    private LocationDTO destination;
+    /**
+     * Great-circle length in kilometres of the first route, or null when a location on it has no coordinates.
+     */
+    private Double distance;
+    private List<List<TransportationResponseDTO>> routes;
+}
@@ -0,0 +1,15 @@
+package com.example.tkproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePageDTO {
+    private List<List<TransportationResponseDTO>> routes;
+    private String nextCursor;
+}
@@ -0,0 +1,39 @@
+package com.example.tkproject.dto;
+
+import com.example.tkproject.model.enums.RouteSortOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A route search. A {@code null} limit returns every route starting at {@code offset}.
+ * Routes only depend on the day of week of the trip date, so the cache key uses the day of week.
+ * A {@code maxDetourRatio} drops routes longer than that multiple of the straight-line distance
+ * between the origin and the destination.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteQuery {
+    private Long originId;
+    private Long destinationId;
+    private LocalDate tripDate;
+    private RouteSortOrder sortBy = RouteSortOrder.DISTANCE;
+    private Integer limit;
+    private int offset;
+    private Double maxDetourRatio;
+
+    public RouteQuery(Long originId, Long destinationId, LocalDate tripDate) {
+        this(originId, destinationId, tripDate, RouteSortOrder.DISTANCE, null, 0);
+    }
+
+    public RouteQuery(Long originId, Long destinationId, LocalDate tripDate, RouteSortOrder sortBy, Integer limit, int offset) {
+        this(originId, destinationId, tripDate, sortBy, limit, offset, null);
+    }
+
+    public String cacheKey() {
+        return originId + "_" + destinationId + "_" + tripDate.getDayOfWeek() + "_" + sortBy + "_" + limit + "_" + offset + "_" + maxDetourRatio;
+    }
+}
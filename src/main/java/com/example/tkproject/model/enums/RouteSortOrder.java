@@ -0,0 +1,6 @@
+package com.example.tkproject.model.enums;
+
+public enum RouteSortOrder {
+    DISTANCE,
+    LEGS
+}
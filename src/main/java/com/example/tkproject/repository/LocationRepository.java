@@ -2,6 +2,12 @@ package com.example.tkproject.repository;
 
 import com.example.tkproject.model.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface LocationRepository extends JpaRepository<Location, Long> {
+
+    @Query("SELECT l.id FROM Location l")
+    List<Long> findAllIds();
 }
@@ -10,4 +10,8 @@ public interface TransportationRepository extends JpaRepository<Transportation,
 
     @Query("SELECT t FROM Transportation t WHERE :day MEMBER OF t.operatingDays")
     List<Transportation> findByOperatingDaysContaining(@Param("day") Integer day);
+
+    // Operating days are lazy; fetching them here lets callers without a session, like the warm-up, map the results
+    @Query("SELECT DISTINCT t FROM Transportation t LEFT JOIN FETCH t.operatingDays")
+    List<Transportation> findAllWithOperatingDays();
 }
@@ -0,0 +1,154 @@
+package com.example.tkproject.seed;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.service.graph.NetworkChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a {@link SyntheticNetworkGenerator} network into the database at startup when the {@code seed}
+ * profile is active, unless synthetic locations are already present.
+ * <p>
+ * Rows are written with JDBC batch inserts in a single transaction instead of through JPA, with ids
+ * following the current maximum ids, and the id sequences are moved past them afterwards. Since this bypasses
+ * the services, the location and transportation caches are evicted here.
+ */
+@Component
+@Profile("seed")
+public class SeedDataLoader implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeedDataLoader.class);
+
+    private static final List<String> NETWORK_CACHES = List.of("locationsCache", "transportationsCache");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final SyntheticNetworkGenerator generator;
+    private final int batchSize;
+
+    public SeedDataLoader(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher,
+                          CacheManager cacheManager,
+                          @Value("${seed.random-seed:42}") long seed,
+                          @Value("${seed.locations:50000}") int locations,
+                          @Value("${seed.airport-ratio:0.02}") double airportRatio,
+                          @Value("${seed.hub-ratio:0.1}") double hubRatio,
+                          @Value("${seed.transfers-per-location:18}") int transfersPerLocation,
+                          @Value("${seed.flights-per-airport:100}") int flightsPerAirport,
+                          @Value("${seed.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.generator = new SyntheticNetworkGenerator(seed, locations, airportRatio, hubRatio,
+                transfersPerLocation, flightsPerAirport);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM locations WHERE location_code LIKE ?", Integer.class,
+                SyntheticNetworkGenerator.CODE_PREFIX + "%");
+        if (existing != null && existing > 0) {
+            logger.info("Skipping synthetic network seed, {} synthetic locations already exist", existing);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long[] counts = transactionTemplate.execute(status -> load());
+        jdbcTemplate.execute("SELECT setval('locations_id_seq', (SELECT MAX(id) FROM locations))");
+        jdbcTemplate.execute("SELECT setval('transportations_id_seq', (SELECT MAX(id) FROM transportations))");
+        logger.info("Seeded synthetic network with {} locations and {} transportations in {} ms",
+                counts[0], counts[1], System.currentTimeMillis() - start);
+        for (String name : NETWORK_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        eventPublisher.publishEvent(new NetworkChangedEvent("synthetic network seeded"));
+    }
+
+    private long[] load() {
+        long locationOffset = maxId("locations");
+        long transportationOffset = maxId("transportations");
+        List<Object[]> locations = new ArrayList<>(batchSize);
+        List<Object[]> transportations = new ArrayList<>(batchSize);
+        List<Object[]> operatingDays = new ArrayList<>(batchSize * 7);
+        long[] counts = new long[2];
+
+        generator.generate(location -> {
+            locations.add(locationRow(location, locationOffset));
+            if (locations.size() == batchSize) {
+                counts[0] += flushLocations(locations);
+            }
+        }, transportation -> {
+            if (!locations.isEmpty()) {
+                counts[0] += flushLocations(locations);
+            }
+            long id = transportation.getId() + transportationOffset;
+            transportations.add(new Object[]{id, transportation.getOrigin().getId() + locationOffset,
+                    transportation.getDestination().getId() + locationOffset, transportation.getType().name()});
+            for (Integer day : transportation.getOperatingDays()) {
+                operatingDays.add(new Object[]{id, day});
+            }
+            if (transportations.size() == batchSize) {
+                counts[1] += flushTransportations(transportations, operatingDays);
+                logger.debug("Seeded {} transportations so far", counts[1]);
+            }
+        });
+        counts[0] += flushLocations(locations);
+        counts[1] += flushTransportations(transportations, operatingDays);
+        return counts;
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private static Object[] locationRow(Location location, long offset) {
+        return new Object[]{location.getId() + offset, location.getName(), location.getCountry(), location.getCity(),
+                location.getLocationCode(), location.getLatitude(), location.getLongitude()};
+    }
+
+    private int flushLocations(List<Object[]> rows) {
+        int count = rows.size();
+        if (count > 0) {
+            jdbcTemplate.batchUpdate("INSERT INTO locations (id, name, country, city, location_code, latitude, longitude) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+        return count;
+    }
+
+    private int flushTransportations(List<Object[]> rows, List<Object[]> operatingDays) {
+        int count = rows.size();
+        if (count > 0) {
+            jdbcTemplate.batchUpdate("INSERT INTO transportations (id, origin_id, destination_id, type) VALUES (?, ?, ?, ?)", rows);
+            jdbcTemplate.batchUpdate("INSERT INTO transportation_operating_days (transportation_id, operating_day) VALUES (?, ?)",
+                    operatingDays);
+            rows.clear();
+            operatingDays.clear();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.tkproject.seed;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+
+import java.util.List;
+
+/**
+ * A network built by {@link SyntheticNetworkGenerator}. The first {@link #getAirportCount()} locations are the airports.
+ */
+public class SyntheticNetwork {
+
+    private final List<Location> locations;
+    private final List<Transportation> transportations;
+    private final int airportCount;
+
+    public SyntheticNetwork(List<Location> locations, List<Transportation> transportations, int airportCount) {
+        this.locations = locations;
+        this.transportations = transportations;
+        this.airportCount = airportCount;
+    }
+
+    public List<Location> getLocations() {
+        return locations;
+    }
+
+    public List<Transportation> getTransportations() {
+        return transportations;
+    }
+
+    /**
+     * Returns the transportations operating on the given day of week, as the repository would.
+     */
+    public List<Transportation> getTransportations(int dayOfWeek) {
+        return transportations.stream().filter(t -> t.getOperatingDays().contains(dayOfWeek)).toList();
+    }
+
+    public int getAirportCount() {
+        return airportCount;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.tkproject.seed;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Generates reproducible networks shaped like real ones, for load, memory and benchmark runs.
+ * <p>
+ * A share of the locations are airports scattered over Europe, a share of those are hubs. Hubs fly to
+ * each other and most flights of the other airports go to a hub and back. Every other location belongs
+ * to the city of one airport, hub cities being larger, and lies within about 30 km of it. City locations
+ * have bus and Uber transfers, plus subway in hub cities, to and from their airport and other locations
+ * of their city. Flights operate on random days, most transfers every day.
+ * <p>
+ * Locations and transportations get consecutive ids starting at 1. Location codes start with
+ * {@value #CODE_PREFIX} so that generated locations can be recognised.
+ */
+public class SyntheticNetworkGenerator {
+
+    public static final String CODE_PREFIX = "SYN";
+
+    private static final int HUB_WEIGHT = 4;
+    private static final TransportationType[] HUB_CITY_TRANSFERS = {
+            TransportationType.BUS, TransportationType.SUBWAY, TransportationType.UBER
+    };
+    private static final TransportationType[] CITY_TRANSFERS = {
+            TransportationType.BUS, TransportationType.UBER
+    };
+    private static final Set<Integer> EVERY_DAY = Set.of(1, 2, 3, 4, 5, 6, 7);
+
+    private final long seed;
+    private final int locationCount;
+    private final double airportRatio;
+    private final double hubRatio;
+    private final int transfersPerLocation;
+    private final int flightsPerAirport;
+
+    public SyntheticNetworkGenerator(long seed, int locationCount, double airportRatio, double hubRatio,
+                                     int transfersPerLocation, int flightsPerAirport) {
+        if (locationCount < 3) {
+            throw new IllegalArgumentException("A synthetic network needs at least 3 locations");
+        }
+        if (airportRatio <= 0 || airportRatio >= 1 || hubRatio <= 0 || hubRatio > 1) {
+            throw new IllegalArgumentException("Airport ratio must be in (0, 1) and hub ratio in (0, 1]");
+        }
+        this.seed = seed;
+        this.locationCount = locationCount;
+        this.airportRatio = airportRatio;
+        this.hubRatio = hubRatio;
+        this.transfersPerLocation = transfersPerLocation;
+        this.flightsPerAirport = flightsPerAirport;
+    }
+
+    public int getAirportCount() {
+        return (int) Math.min(locationCount - 1, Math.max(2, Math.round(locationCount * airportRatio)));
+    }
+
+    /**
+     * Generates the whole network in memory.
+     */
+    public SyntheticNetwork generate() {
+        List<Location> locations = new ArrayList<>(locationCount);
+        List<Transportation> transportations = new ArrayList<>();
+        generate(locations::add, transportations::add);
+        return new SyntheticNetwork(locations, transportations, getAirportCount());
+    }
+
+    /**
+     * Streams the network to the given consumers, every location before the first transportation,
+     * so large networks can be written out without being held in memory.
+     */
+    public void generate(Consumer<Location> locationConsumer, Consumer<Transportation> transportationConsumer) {
+        Random random = new Random(seed);
+        int airportCount = getAirportCount();
+        int hubCount = (int) Math.max(1, Math.round(airportCount * hubRatio));
+
+        Location[] airports = new Location[airportCount];
+        List<List<Location>> cities = new ArrayList<>(airportCount);
+        for (int a = 0; a < airportCount; a++) {
+            Location airport = new Location("Airport " + a, "Country " + a % 40, "City " + a, code(a));
+            airport.setId((long) a + 1);
+            airport.setLatitude(36 + random.nextDouble() * 24);
+            airport.setLongitude(-9 + random.nextDouble() * 38);
+            airports[a] = airport;
+            cities.add(new ArrayList<>());
+            locationConsumer.accept(airport);
+        }
+        int cityWeights = hubCount * HUB_WEIGHT + airportCount - hubCount;
+        for (int i = airportCount; i < locationCount; i++) {
+            int pick = random.nextInt(cityWeights);
+            int a = pick < hubCount * HUB_WEIGHT ? pick / HUB_WEIGHT : hubCount + pick - hubCount * HUB_WEIGHT;
+            Location airport = airports[a];
+            Location location = new Location("Location " + i, airport.getCountry(), airport.getCity(), code(i));
+            location.setId((long) i + 1);
+            location.setLatitude(airport.getLatitude() + (random.nextDouble() - 0.5) * 0.5);
+            location.setLongitude(airport.getLongitude() + (random.nextDouble() - 0.5) * 0.5);
+            cities.get(a).add(location);
+            locationConsumer.accept(location);
+        }
+
+        long[] nextId = {1};
+        Consumer<Transportation> emit = transportation -> {
+            transportation.setId(nextId[0]++);
+            transportationConsumer.accept(transportation);
+        };
+        for (int a = 0; a < airportCount; a++) {
+            TransportationType[] types = a < hubCount ? HUB_CITY_TRANSFERS : CITY_TRANSFERS;
+            List<Location> city = cities.get(a);
+            for (Location location : city) {
+                for (int k = 0; k < transfersPerLocation; k++) {
+                    Location other = k % 2 == 1 && city.size() > 1 ? city.get(random.nextInt(city.size())) : airports[a];
+                    if (other == location) {
+                        other = airports[a];
+                    }
+                    TransportationType type = types[random.nextInt(types.length)];
+                    Set<Integer> days = random.nextInt(5) < 4 ? EVERY_DAY : randomDays(random);
+                    emit.accept((k / 2) % 2 == 0
+                            ? new Transportation(location, other, type, days)
+                            : new Transportation(other, location, type, days));
+                }
+            }
+        }
+        for (int a = 0; a < hubCount; a++) {
+            if (hubCount - 1 <= flightsPerAirport) {
+                for (int h = 0; h < hubCount; h++) {
+                    if (h != a) {
+                        emit.accept(flight(airports[a], airports[h], random));
+                    }
+                }
+            } else {
+                for (int f = 0; f < flightsPerAirport; f++) {
+                    emit.accept(flight(airports[a], airports[otherAirport(random, hubCount, a)], random));
+                }
+            }
+        }
+        for (int a = hubCount; a < airportCount; a++) {
+            for (int f = 0; f < Math.max(1, flightsPerAirport / 2); f++) {
+                Location other = random.nextInt(5) < 4
+                        ? airports[random.nextInt(hubCount)]
+                        : airports[otherAirport(random, airportCount, a)];
+                emit.accept(flight(airports[a], other, random));
+                emit.accept(flight(other, airports[a], random));
+            }
+        }
+    }
+
+    private static String code(int index) {
+        return CODE_PREFIX + Integer.toString(index, 36).toUpperCase();
+    }
+
+    private static int otherAirport(Random random, int count, int airport) {
+        int other = random.nextInt(count - 1);
+        return other >= airport ? other + 1 : other;
+    }
+
+    private static Transportation flight(Location origin, Location destination, Random random) {
+        return new Transportation(origin, destination, TransportationType.FLIGHT, randomDays(random));
+    }
+
+    private static Set<Integer> randomDays(Random random) {
+        Set<Integer> days = new HashSet<>();
+        for (int day = 1; day <= 7; day++) {
+            if (random.nextInt(7) < 5) {
+                days.add(day);
+            }
+        }
+        if (days.isEmpty()) {
+            days.add(1 + random.nextInt(7));
+        }
+        return days;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.tkproject.service;
+
+import com.example.tkproject.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of route searches in flight with an AIMD (additive increase, multiplicative decrease)
+ * concurrency limit. A search finishing within {@code route.admission.latency-threshold-ms} while the limit is
+ * well used raises the limit by one, a slower search multiplies it by {@code backoff-ratio}. Searches over
+ * the limit are rejected right away with a {@link ServiceOverloadedException} instead of being queued,
+ * which keeps latency bounded for the searches that are admitted.
+ */
+@Component
+public class AdmissionLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionLimiter.class);
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final long retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile double limit;
+
+    public AdmissionLimiter(MeterRegistry meterRegistry,
+                            @Value("${route.admission.enabled:true}") boolean enabled,
+                            @Value("${route.admission.initial-limit:50}") int initialLimit,
+                            @Value("${route.admission.min-limit:5}") int minLimit,
+                            @Value("${route.admission.max-limit:500}") int maxLimit,
+                            @Value("${route.admission.latency-threshold-ms:1000}") long latencyThresholdMillis,
+                            @Value("${route.admission.backoff-ratio:0.9}") double backoffRatio,
+                            @Value("${route.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.backoffRatio = backoffRatio;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder("route.admission.limit", this, AdmissionLimiter::getLimit)
+                .description("Current concurrency limit of route searches")
+                .register(meterRegistry);
+        Gauge.builder("route.admission.in-flight", inFlight, AtomicInteger::get)
+                .description("Route searches in flight")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("route.admission.rejected")
+                .description("Route searches rejected by admission control")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a search or throws {@link ServiceOverloadedException}. The permit must be released exactly once.
+     */
+    public Permit acquire() {
+        if (!enabled) {
+            return Permit.NONE;
+        }
+        if (inFlight.incrementAndGet() > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            logger.warn("Rejecting route search, {} searches in flight at limit {}", inFlight.get(), (int) limit);
+            throw new ServiceOverloadedException("Too many route searches in progress, please retry later", retryAfterSeconds);
+        }
+        long start = System.nanoTime();
+        return success -> onComplete(System.nanoTime() - start, success);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Adjusts the limit with the latency of a finished search. Failed searches leave the limit unchanged.
+     */
+    void onComplete(long latencyNanos, boolean success) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (!success) {
+            return;
+        }
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Permit {
+        Permit NONE = success -> {
+        };
+
+        void release(boolean success);
+    }
+}
@@ -4,10 +4,12 @@ import com.example.tkproject.dto.LocationDTO;
 import com.example.tkproject.exception.ResourceNotFoundException;
 import com.example.tkproject.model.Location;
 import com.example.tkproject.repository.LocationRepository;
+import com.example.tkproject.service.graph.NetworkChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -19,9 +21,11 @@ public class LocationServiceImpl implements LocationService {
 
     private static final Logger logger = LoggerFactory.getLogger(LocationServiceImpl.class);
     private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LocationServiceImpl(LocationRepository locationRepository) {
+    public LocationServiceImpl(LocationRepository locationRepository, ApplicationEventPublisher eventPublisher) {
         this.locationRepository = locationRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Cacheable(value = "locationsCache")
@@ -66,6 +70,7 @@ public class LocationServiceImpl implements LocationService {
         }
 
         Location savedLocation = locationRepository.save(location);
+        eventPublisher.publishEvent(new NetworkChangedEvent("location created"));
         return LocationDTO.fromEntity(savedLocation);
     }
 
@@ -87,6 +92,7 @@ public class LocationServiceImpl implements LocationService {
 
 
         Location updatedLocation = locationRepository.save(existing);
+        eventPublisher.publishEvent(new NetworkChangedEvent("location updated"));
         return LocationDTO.fromEntity(updatedLocation);
     }
 
@@ -100,5 +106,6 @@ public class LocationServiceImpl implements LocationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Location not found with id: " + id));
 
         locationRepository.deleteById(id);
+        eventPublisher.publishEvent(new NetworkChangedEvent("location deleted"));
     }
 }
@@ -1,12 +1,31 @@
 package com.example.tkproject.service;
 
+import com.example.tkproject.dto.RouteBatchRequestDTO;
+import com.example.tkproject.dto.RouteBatchResultDTO;
+import com.example.tkproject.dto.RouteCalendarDTO;
+import com.example.tkproject.dto.RouteDestinationDTO;
+import com.example.tkproject.dto.RoutePageDTO;
+import com.example.tkproject.dto.RouteQuery;
 import com.example.tkproject.dto.TransportationResponseDTO;
+import com.example.tkproject.model.enums.RouteSortOrder;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface RouteService {
     List<List<TransportationResponseDTO>> findRoutesSync(Long originId, Long destinationId, LocalDate tripDate);
     CompletableFuture<List<List<TransportationResponseDTO>>> findRoutes(Long originId, Long destinationId, LocalDate tripDate);
+    RoutePageDTO findRoutesSync(RouteQuery query);
+    CompletableFuture<RoutePageDTO> findRoutes(RouteQuery query);
+    Stream<List<TransportationResponseDTO>> streamRoutes(RouteQuery query);
+    List<RouteCalendarDTO> findRoutesRangeSync(Long originId, Long destinationId, LocalDate fromDate, LocalDate toDate,
+                                               RouteSortOrder sortBy, Integer limit);
+    CompletableFuture<List<RouteCalendarDTO>> findRoutesRange(Long originId, Long destinationId, LocalDate fromDate, LocalDate toDate,
+                                                              RouteSortOrder sortBy, Integer limit);
+    List<RouteBatchResultDTO> findRoutesBatchSync(RouteBatchRequestDTO request);
+    CompletableFuture<List<RouteBatchResultDTO>> findRoutesBatch(RouteBatchRequestDTO request);
+    List<RouteDestinationDTO> findRoutesFromSync(Long originId, LocalDate tripDate, RouteSortOrder sortBy, boolean bestOnly);
+    CompletableFuture<List<RouteDestinationDTO>> findRoutesFrom(Long originId, LocalDate tripDate, RouteSortOrder sortBy, boolean bestOnly);
 }
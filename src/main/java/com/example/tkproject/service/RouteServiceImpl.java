@@ -1,239 +1,679 @@
 package com.example.tkproject.service;
 
+import com.example.tkproject.dto.RouteBatchRequestDTO;
+import com.example.tkproject.cache.CachedRouteDestinations;
+import com.example.tkproject.cache.CachedRoutePage;
+import com.example.tkproject.cache.ClusterSingleFlight;
+import com.example.tkproject.cache.ReadFailureCacheErrorHandler;
+import com.example.tkproject.dto.LocationDTO;
+import com.example.tkproject.dto.RouteBatchResultDTO;
+import com.example.tkproject.dto.RouteCalendarDTO;
+import com.example.tkproject.dto.RouteDestinationDTO;
+import com.example.tkproject.dto.RoutePageDTO;
+import com.example.tkproject.dto.RouteQuery;
 import com.example.tkproject.dto.TransportationResponseDTO;
 import com.example.tkproject.exception.RouteServiceException;
 import com.example.tkproject.model.Location;
-import com.example.tkproject.model.Transportation;
-import com.example.tkproject.model.enums.TransportationType;
+import com.example.tkproject.model.enums.RouteSortOrder;
 import com.example.tkproject.repository.LocationRepository;
-import com.example.tkproject.repository.TransportationRepository;
-import org.hibernate.Hibernate;
+import com.example.tkproject.service.graph.CountingSearch;
+import com.example.tkproject.service.graph.GraphRoute;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator;
+import com.example.tkproject.service.graph.NetworkVersion;
+import com.example.tkproject.service.graph.RouteGraphProvider;
+import com.example.tkproject.service.graph.RouteGraphSnapshot;
+import com.example.tkproject.service.graph.RouteEngine;
+import com.example.tkproject.service.graph.RouteIndex;
+import com.example.tkproject.service.graph.RouteSearchMetrics;
+import com.example.tkproject.service.graph.RouteSet;
+import com.example.tkproject.service.graph.TopRouteCollector;
+import com.example.tkproject.util.CursorUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RouteServiceImpl implements RouteService {
 
     private static final Logger logger = LoggerFactory.getLogger(RouteServiceImpl.class);
+    private static final String ROUTES_CACHE = "routesCache";
     private final LocationRepository locationRepository;
-    private final TransportationRepository transportationRepository;
-    private final TransactionTemplate transactionTemplate;
+    private final RouteGraphProvider routeGraphProvider;
+    private final RouteIndex routeIndex;
+    private final RouteEngine routeEngine;
+    private final CacheManager cacheManager;
+    private final ClusterSingleFlight clusterSingleFlight;
+    private final RouteSearchMetrics metrics;
+    private final NetworkVersion networkVersion;
+    private final TransportationDtoTable transportationDtos;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightSearches = new ConcurrentHashMap<>();
 
     public RouteServiceImpl(LocationRepository locationRepository,
-                            TransportationRepository transportationRepository,
-                            PlatformTransactionManager transactionManager) {
+                            RouteGraphProvider routeGraphProvider,
+                            RouteIndex routeIndex,
+                            RouteEngine routeEngine,
+                            CacheManager cacheManager,
+                            ClusterSingleFlight clusterSingleFlight,
+                            RouteSearchMetrics metrics,
+                            NetworkVersion networkVersion,
+                            TransportationDtoTable transportationDtos) {
         this.locationRepository = locationRepository;
-        this.transportationRepository = transportationRepository;
-        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.routeGraphProvider = routeGraphProvider;
+        this.routeIndex = routeIndex;
+        this.routeEngine = routeEngine;
+        this.cacheManager = cacheManager;
+        this.clusterSingleFlight = clusterSingleFlight;
+        this.metrics = metrics;
+        this.networkVersion = networkVersion;
+        this.transportationDtos = transportationDtos;
     }
 
-    private static class RouteState implements Comparable<RouteState> {
-        final Long locationId;
-        final double distance;
-        final List<Transportation> route;
-        final int flightCount;
+    @Override
+    public List<List<TransportationResponseDTO>> findRoutesSync(Long originId, Long destinationId, LocalDate tripDate) {
+        return findRoutesSync(new RouteQuery(originId, destinationId, tripDate)).getRoutes();
+    }
 
-        RouteState(Long locationId, double distance, List<Transportation> route, int flightCount) {
-            this.locationId = locationId;
-            this.distance = distance;
-            this.route = route;
-            this.flightCount = flightCount;
+    /**
+     * Answers from the in-memory route index when it can, without touching the shared cache. Only queries the
+     * index cannot answer are searched, and only those results are cached.
+     */
+    @Override
+    public RoutePageDTO findRoutesSync(RouteQuery query) {
+        if (!query.getOriginId().equals(query.getDestinationId()) && routeIndex.isEnabled()) {
+            String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+            logger.info("User {} is searching routes from {} to {} on {} in the route index", currentUser,
+                    query.getOriginId(), query.getDestinationId(), query.getTripDate());
+            TopRouteCollector indexed = metrics.time(RouteSearchMetrics.INDEX, () -> lookupIndexedRoutes(query));
+            if (indexed != null) {
+                return toPage(query, indexed);
+            }
         }
+        int dayOfWeek = query.getTripDate().getDayOfWeek().getValue();
+        return coalesce(query.cacheKey(), () -> searchPage(query),
+                page -> new CachedRoutePage(dayOfWeek, routeIds(page.getRoutes()), page.getNextCursor()),
+                this::hydratePage);
+    }
+
+    private RoutePageDTO searchPage(RouteQuery query) {
+        Long originId = query.getOriginId();
+        Long destinationId = query.getDestinationId();
+        try {
+            String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+            logger.info("User {} is searching routes from {} to {} on {}", currentUser, originId, destinationId, query.getTripDate());
+
+            return toPage(query, collectRoutes(query, false));
+        } catch (Exception ex) {
+            logger.error("Error finding routes: {}", ex.getMessage(), ex);
 
-        @Override
-        public int compareTo(RouteState other) {
-            return Double.compare(this.distance, other.distance);
+            if (ex instanceof RouteServiceException) {
+                throw (RouteServiceException) ex;
+            }
+            throw new RouteServiceException("Error finding routes", ex);
         }
     }
 
+    private RoutePageDTO toPage(RouteQuery query, TopRouteCollector collector) {
+        List<GraphRoute> routes = metrics.time(RouteSearchMetrics.SORT, collector::getRoutes);
+        logger.info("Total valid routes found: {}", routes.size());
+
+        int from = Math.min(query.getOffset(), routes.size());
+        int to = query.getLimit() == null ? routes.size() : Math.min(from + query.getLimit(), routes.size());
+        String nextCursor = to < routes.size() ? CursorUtil.encodeOffset(to) : null;
+
+        return new RoutePageDTO(toDtos(transportationDtos.current(), collector.getGraph(), routes.subList(from, to)), nextCursor);
+    }
+
     /**
-     * Caches the list of available transports for the given dayOfWeek.
+     * Searches the routes of the query right away, but only converts each route to DTOs when the returned
+     * stream reaches it, so a caller writing routes out one by one never holds all of them as DTOs.
+     * <p>
+     * No route is handed out before the search ends: the enumeration joins the flights of the graph in no
+     * particular distance order, so any route may still be beaten by one found later and none is final before
+     * the last one is seen. Until then only the compact leg indexes of the kept routes are held.
      */
-    @Cacheable(value = "availableTransportsCache", key = "#dayOfWeek")
-    public List<Transportation> getAvailableTransports(int dayOfWeek) {
-        logger.debug("Fetching available transports for day {}", dayOfWeek);
-        return transportationRepository.findByOperatingDaysContaining(dayOfWeek);
+    @Override
+    public Stream<List<TransportationResponseDTO>> streamRoutes(RouteQuery query) {
+        try {
+            String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+            logger.info("User {} is streaming routes from {} to {} on {}", currentUser,
+                    query.getOriginId(), query.getDestinationId(), query.getTripDate());
+
+            TopRouteCollector collector = collectRoutes(query, true);
+            List<GraphRoute> routes = metrics.time(RouteSearchMetrics.SORT, collector::getRoutes);
+            logger.info("Total valid routes found: {}", routes.size());
+
+            int from = Math.min(query.getOffset(), routes.size());
+            int to = query.getLimit() == null ? routes.size() : Math.min(from + query.getLimit(), routes.size());
+            RouteGraphSnapshot graph = collector.getGraph();
+            TransportationDtoTable.Snapshot dtos = transportationDtos.current();
+            return routes.subList(from, to).stream().map(route -> toDto(dtos, graph, route));
+        } catch (Exception ex) {
+            logger.error("Error streaming routes: {}", ex.getMessage(), ex);
+
+            if (ex instanceof RouteServiceException) {
+                throw (RouteServiceException) ex;
+            }
+            throw new RouteServiceException("Error finding routes", ex);
+        }
+    }
+
+    @Override
+    @Async("asyncExecutor")
+    public CompletableFuture<List<List<TransportationResponseDTO>>> findRoutes(Long originId, Long destinationId, LocalDate tripDate) {
+        logger.debug("Executing asynchronous findRoutes on thread: {}", Thread.currentThread().getName());
+        List<List<TransportationResponseDTO>> result = findRoutesSync(originId, destinationId, tripDate);
+        return CompletableFuture.completedFuture(result);
+    }
+
+    @Override
+    @Async("asyncExecutor")
+    public CompletableFuture<RoutePageDTO> findRoutes(RouteQuery query) {
+        logger.debug("Executing asynchronous findRoutes on thread: {}", Thread.currentThread().getName());
+        return CompletableFuture.completedFuture(findRoutesSync(query));
     }
 
     /**
-     * Caches the adjacency list for the given dayOfWeek.
+     * Finds the routes between two locations for every date of a range. Routes only depend on the
+     * day of week, so at most seven searches are run and their results are shared by all dates of that weekday.
      */
-    @Cacheable(value = "adjacencyListCache", key = "#dayOfWeek")
-    public Map<Long, List<Transportation>> getAdjacencyList(int dayOfWeek) {
-        List<Transportation> availableTransports = getAvailableTransports(dayOfWeek);
-        logger.debug("Building adjacency list from {} transports", availableTransports.size());
-        return availableTransports.stream()
-                .collect(Collectors.groupingBy(t -> t.getOrigin().getId()));
-    }
-
-    @Cacheable(value = "locationMapCache", key = "#dayOfWeek")
-    public Map<Long, Location> getLocationMap(int dayOfWeek) {
-        List<Transportation> availableTransports = getAvailableTransports(dayOfWeek);
-        Map<Long, Location> locationMap = new HashMap<>();
-        availableTransports.forEach(t -> {
-            locationMap.put(t.getOrigin().getId(), t.getOrigin());
-            locationMap.put(t.getDestination().getId(), t.getDestination());
-        });
-        return locationMap;
+    @Override
+    public List<RouteCalendarDTO> findRoutesRangeSync(Long originId, Long destinationId, LocalDate fromDate, LocalDate toDate,
+                                                      RouteSortOrder sortBy, Integer limit) {
+        try {
+            String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+            logger.info("User {} is searching routes from {} to {} between {} and {}", currentUser, originId, destinationId, fromDate, toDate);
+
+            if (originId.equals(destinationId)) {
+                throw new RouteServiceException("Origin and destination must be different!");
+            }
+
+            int capacity = limit == null ? Integer.MAX_VALUE : limit;
+            Map<DayOfWeek, List<List<TransportationResponseDTO>>> byWeekday = new EnumMap<>(DayOfWeek.class);
+            TransportationDtoTable.Snapshot dtos = transportationDtos.current();
+            List<RouteCalendarDTO> calendar = new ArrayList<>();
+            boolean validated = false;
+            for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+                DayOfWeek day = date.getDayOfWeek();
+                List<List<TransportationResponseDTO>> routes = byWeekday.get(day);
+                if (routes == null) {
+                    TopRouteCollector collector = lookupIndexedRoutes(originId, destinationId, day.getValue(), sortBy, capacity, null);
+                    if (collector == null) {
+                        if (!validated) {
+                            validateLocations(originId, destinationId);
+                            validated = true;
+                        }
+                        collector = searchRoutes(originId, destinationId, day.getValue(), sortBy, capacity, null);
+                    }
+                    List<GraphRoute> sorted = metrics.time(RouteSearchMetrics.SORT, collector::getRoutes);
+                    routes = toDtos(dtos, collector.getGraph(), sorted);
+                    byWeekday.put(day, routes);
+                }
+                calendar.add(new RouteCalendarDTO(date, routes));
+            }
+            logger.info("Answered {} dates with {} weekday searches", calendar.size(), byWeekday.size());
+            return calendar;
+        } catch (Exception ex) {
+            logger.error("Error finding routes for date range: {}", ex.getMessage(), ex);
+
+            if (ex instanceof RouteServiceException) {
+                throw (RouteServiceException) ex;
+            }
+            throw new RouteServiceException("Error finding routes", ex);
+        }
     }
 
     @Override
-    @Cacheable(value = "routesCache", key = "#originId + '_' + #destinationId + '_' + #tripDate")
-    public List<List<TransportationResponseDTO>> findRoutesSync(Long originId, Long destinationId, LocalDate tripDate) {
-        return transactionTemplate.execute(status -> {
-            try {
-                String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
-                logger.info("User {} is searching routes from {} to {} on {}", currentUser, originId, destinationId, tripDate);
+    @Async("asyncExecutor")
+    public CompletableFuture<List<RouteCalendarDTO>> findRoutesRange(Long originId, Long destinationId, LocalDate fromDate,
+                                                                     LocalDate toDate, RouteSortOrder sortBy, Integer limit) {
+        logger.debug("Executing asynchronous findRoutesRange on thread: {}", Thread.currentThread().getName());
+        return CompletableFuture.completedFuture(findRoutesRangeSync(originId, destinationId, fromDate, toDate, sortBy, limit));
+    }
 
-                if (originId.equals(destinationId)) {
+    /**
+     * Answers many route queries at once. All locations are validated with a single query, and the
+     * queries are grouped by day of week and origin so each origin is expanded only once per day,
+     * no matter how many destinations or dates of that weekday it is asked for.
+     */
+    @Override
+    public List<RouteBatchResultDTO> findRoutesBatchSync(RouteBatchRequestDTO request) {
+        try {
+            List<RouteBatchRequestDTO.Query> queries = request.getQueries();
+            String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+            logger.info("User {} is searching routes for a batch of {} queries", currentUser, queries.size());
+
+            Set<Long> locationIds = new HashSet<>();
+            Map<Integer, Map<Long, Set<Long>>> destinationsByDayAndOrigin = new TreeMap<>();
+            for (RouteBatchRequestDTO.Query query : queries) {
+                if (query.getOriginId().equals(query.getDestinationId())) {
                     throw new RouteServiceException("Origin and destination must be different!");
                 }
+                locationIds.add(query.getOriginId());
+                locationIds.add(query.getDestinationId());
+                destinationsByDayAndOrigin
+                        .computeIfAbsent(query.getTripDate().getDayOfWeek().getValue(), day -> new HashMap<>())
+                        .computeIfAbsent(query.getOriginId(), origin -> new HashSet<>())
+                        .add(query.getDestinationId());
+            }
 
-                int dayOfWeek = tripDate.getDayOfWeek().getValue();
+            Set<Long> found = metrics.time(RouteSearchMetrics.LOCATIONS, () -> locationRepository.findAllById(locationIds)).stream()
+                    .map(Location::getId)
+                    .collect(Collectors.toSet());
+            for (Long locationId : locationIds) {
+                if (!found.contains(locationId)) {
+                    throw new RouteServiceException("Location not found with ID: " + locationId);
+                }
+            }
 
-                Location origin = locationRepository.findById(originId)
-                        .orElseThrow(() -> new RouteServiceException("Origin not found with ID: " + originId));
-                Location destination = locationRepository.findById(destinationId)
-                        .orElseThrow(() -> new RouteServiceException("Destination not found with ID: " + destinationId));
+            int capacity = request.getLimit() == null ? Integer.MAX_VALUE : request.getLimit();
+            Map<String, List<List<TransportationResponseDTO>>> results = new HashMap<>();
+            TransportationDtoTable.Snapshot dtos = transportationDtos.current();
+            destinationsByDayAndOrigin.forEach((day, byOrigin) -> byOrigin.forEach((originId, destinationIds) ->
+                    searchRoutesFrom(dtos, originId, destinationIds, day, request.getSortBy(), capacity)
+                            .forEach((destinationId, routes) ->
+                                    results.put(batchKey(day, originId, destinationId), routes))));
+            logger.info("Answered {} batch queries with {} origin expansions", queries.size(),
+                    destinationsByDayAndOrigin.values().stream().mapToInt(Map::size).sum());
+
+            return queries.stream()
+                    .map(query -> new RouteBatchResultDTO(query.getOriginId(), query.getDestinationId(), query.getTripDate(),
+                            results.get(batchKey(query.getTripDate().getDayOfWeek().getValue(),
+                                    query.getOriginId(), query.getDestinationId()))))
+                    .collect(Collectors.toList());
+        } catch (Exception ex) {
+            logger.error("Error finding routes for batch: {}", ex.getMessage(), ex);
+
+            if (ex instanceof RouteServiceException) {
+                throw (RouteServiceException) ex;
+            }
+            throw new RouteServiceException("Error finding routes", ex);
+        }
+    }
 
-                List<Transportation> availableTransports = getAvailableTransports(dayOfWeek);
-                logger.debug("Total transportation records found for day {}: {}", dayOfWeek, availableTransports.size());
+    @Override
+    @Async("asyncExecutor")
+    public CompletableFuture<List<RouteBatchResultDTO>> findRoutesBatch(RouteBatchRequestDTO request) {
+        logger.debug("Executing asynchronous findRoutesBatch on thread: {}", Thread.currentThread().getName());
+        return CompletableFuture.completedFuture(findRoutesBatchSync(request));
+    }
 
-                Map<Long, List<Transportation>> adjacencyList = getAdjacencyList(dayOfWeek);
-                Map<Long, Location> locationMap = getLocationMap(dayOfWeek);
-                locationMap.putIfAbsent(origin.getId(), origin);
-                locationMap.putIfAbsent(destination.getId(), destination);
+    /**
+     * Finds the routes from one origin to every reachable destination with a single expansion of the origin.
+     * Destinations are ordered by the distance of their first route, then by id.
+     * With {@code bestOnly} only the best route of each destination is returned.
+     */
+    @Override
+    public List<RouteDestinationDTO> findRoutesFromSync(Long originId, LocalDate tripDate, RouteSortOrder sortBy, boolean bestOnly) {
+        String key = "from_" + originId + "_" + tripDate.getDayOfWeek() + "_" + sortBy + "_" + bestOnly;
+        int dayOfWeek = tripDate.getDayOfWeek().getValue();
+        return coalesce(key, () -> searchFrom(originId, tripDate, sortBy, bestOnly),
+                results -> new CachedRouteDestinations(dayOfWeek, results.stream()
+                        .map(result -> new CachedRouteDestinations.Destination(result.getDestination().getId(),
+                                result.getDistance(), routeIds(result.getRoutes())))
+                        .collect(Collectors.toList())),
+                this::hydrateDestinations);
+    }
 
-                PriorityQueue<RouteState> pq = new PriorityQueue<>();
-                List<List<Transportation>> validRoutes = new ArrayList<>();
-                pq.offer(new RouteState(originId, 0.0, new ArrayList<>(), 0));
+    private List<RouteDestinationDTO> searchFrom(Long originId, LocalDate tripDate, RouteSortOrder sortBy, boolean bestOnly) {
+        try {
+            String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+            logger.info("User {} is searching routes from {} to every destination on {}", currentUser, originId, tripDate);
 
-                while (!pq.isEmpty()) {
-                    RouteState current = pq.poll();
+            metrics.time(RouteSearchMetrics.LOCATIONS, () -> locationRepository.findById(originId))
+                    .orElseThrow(() -> new RouteServiceException("Origin not found with ID: " + originId));
 
-                    if (current.locationId.equals(destinationId)) {
-                        if (isValidRoute(current.route)) {
-                            validRoutes.add(new ArrayList<>(current.route));
-                        }
-                        continue;
-                    }
+            int dayOfWeek = tripDate.getDayOfWeek().getValue();
+            RouteGraphSnapshot graph = metrics.time(RouteSearchMetrics.GRAPH, () -> routeGraphProvider.getSnapshot(dayOfWeek));
+            int originNode = graph.indexOf(originId);
+            if (originNode < 0) {
+                return new ArrayList<>();
+            }
 
-                    if (current.route.size() >= 3) {
-                        continue;
-                    }
+            int capacity = bestOnly ? 1 : Integer.MAX_VALUE;
+            TopRouteCollector[] byNode = new TopRouteCollector[graph.nodeCount()];
+            // One-to-many enumeration is unbounded, so it is timed but kept out of the
+            // per-search expanded/pruned distributions of the point-to-point searches.
+            LayeredRouteEnumerator.RouteVisitor visitor = (legs, length, distance) -> {
+                int destinationNode = graph.target(legs[length - 1]);
+                if (byNode[destinationNode] == null) {
+                    byNode[destinationNode] = new TopRouteCollector(graph, sortBy, capacity);
+                }
+                byNode[destinationNode].visit(legs, length, distance);
+            };
+            metrics.time(RouteSearchMetrics.SEARCH, () -> {
+                routeEngine.enumerateFrom(graph, originNode, visitor);
+                return visitor;
+            });
+
+            List<List<GraphRoute>> sorted = metrics.time(RouteSearchMetrics.SORT, () -> Arrays.stream(byNode)
+                    .map(collector -> collector == null ? null : collector.getRoutes())
+                    .collect(Collectors.toList()));
+            TransportationDtoTable.Snapshot dtos = transportationDtos.current();
+            List<RouteDestinationDTO> results = new ArrayList<>();
+            for (int node = 0; node < byNode.length; node++) {
+                List<GraphRoute> routes = sorted.get(node);
+                if (routes == null) {
+                    continue;
+                }
+                double distance = routes.getFirst().getDistance();
+                results.add(new RouteDestinationDTO(LocationDTO.fromEntity(graph.location(node)),
+                        distance == RouteGraphSnapshot.UNKNOWN_DISTANCE ? null : distance,
+                        toDtos(dtos, graph, routes)));
+            }
+            results.sort(Comparator.comparing(RouteDestinationDTO::getDistance, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(result -> result.getDestination().getId()));
+            logger.info("Found routes to {} destinations from {}", results.size(), originId);
+            return results;
+        } catch (Exception ex) {
+            logger.error("Error finding routes from {}: {}", originId, ex.getMessage(), ex);
+
+            if (ex instanceof RouteServiceException) {
+                throw (RouteServiceException) ex;
+            }
+            throw new RouteServiceException("Error finding routes", ex);
+        }
+    }
 
-                    List<Transportation> nextTransports = adjacencyList.getOrDefault(current.locationId, Collections.emptyList());
-                    for (Transportation t : nextTransports) {
-                        int newFlightCount = current.flightCount + (t.getType() == TransportationType.FLIGHT ? 1 : 0);
-                        if (newFlightCount > 1) {
-                            continue;
-                        }
-                        double segmentDistance = calculateDistance(t.getOrigin(), t.getDestination());
-                        double newDistance = current.distance + segmentDistance;
-                        List<Transportation> newRoute = new ArrayList<>(current.route);
-                        newRoute.add(t);
-                        pq.offer(new RouteState(t.getDestination().getId(), newDistance, newRoute, newFlightCount));
-                    }
+    @Override
+    @Async("asyncExecutor")
+    public CompletableFuture<List<RouteDestinationDTO>> findRoutesFrom(Long originId, LocalDate tripDate,
+                                                                       RouteSortOrder sortBy, boolean bestOnly) {
+        logger.debug("Executing asynchronous findRoutesFrom on thread: {}", Thread.currentThread().getName());
+        return CompletableFuture.completedFuture(findRoutesFromSync(originId, tripDate, sortBy, bestOnly));
+    }
+
+    /**
+     * Returns the cached result for the key, or runs the search. Identical searches running at the same time
+     * in this JVM are coalesced: the first caller runs the search and the others wait for its result
+     * instead of repeating it. The result is cached before the search leaves the in-flight map, so a
+     * later caller always finds one or the other. Across instances, {@link ClusterSingleFlight} decides
+     * whether this instance runs the search or picks up the result of another one.
+     * Keys are prefixed with the {@link NetworkVersion}, so results of an older network are never served.
+     * Results are cached in the compact form returned by {@code compact} and turned back into DTOs by
+     * {@code hydrate}, which returns {@code null} if the cached form no longer matches the route graph.
+     */
+    @SuppressWarnings("unchecked")
+    private <T, C> T coalesce(String queryKey, Supplier<T> search, Function<T, C> compact, Function<C, T> hydrate) {
+        String key = "v" + networkVersion.current() + "_" + queryKey;
+        Cache cache = cacheManager.getCache(ROUTES_CACHE);
+        if (cache != null) {
+            Cache.ValueWrapper cached = ReadFailureCacheErrorHandler.get(cache, key);
+            if (cached != null) {
+                T hydrated = hydrate.apply((C) cached.get());
+                if (hydrated != null) {
+                    logger.debug("Serving routes for {} from cache", key);
+                    return hydrated;
                 }
+                logger.debug("Cached routes for {} do not match the route graph, searching again", key);
+                // Otherwise the cluster leader would find the stale entry again and never replace it
+                cache.evict(key);
+            }
+        }
 
-                validRoutes.sort((r1, r2) -> {
-                    double d1 = calculateTotalDistance(r1, locationMap);
-                    double d2 = calculateTotalDistance(r2, locationMap);
-                    return Double.compare(d1, d2);
-                });
-                logger.info("Total valid routes found: {}", validRoutes.size());
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightSearches.putIfAbsent(key, own);
+        if (inFlight != null) {
+            logger.debug("Joining in-flight route search for {}", key);
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RouteServiceException) {
+                    throw (RouteServiceException) ex.getCause();
+                }
+                throw new RouteServiceException("Error finding routes", ex.getCause());
+            }
+        }
 
-                validRoutes.forEach(route -> route.forEach(t -> {
-                    if (t.getOperatingDays() != null) {
-                        Hibernate.initialize(t.getOperatingDays());
-                    }
-                }));
+        try {
+            AtomicReference<T> searched = new AtomicReference<>();
+            C compacted = clusterSingleFlight.compute(key, cache, () -> {
+                T result = search.get();
+                searched.set(result);
+                return compact.apply(result);
+            });
+            T result = searched.get();
+            if (result == null) {
+                result = hydrate.apply(compacted);
+            }
+            if (result == null) {
+                result = search.get();
+            }
+            own.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            // Followers block on own, so it must complete even when the search fails with an Error
+            own.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightSearches.remove(key, own);
+        }
+    }
 
-                List<List<TransportationResponseDTO>> dtoRoutes = validRoutes.stream()
-                        .map(route -> route.stream()
-                                .map(TransportationResponseDTO::fromEntity)
-                                .collect(Collectors.toList()))
-                        .collect(Collectors.toList());
+    private RoutePageDTO hydratePage(CachedRoutePage page) {
+        RouteGraphSnapshot graph = metrics.time(RouteSearchMetrics.GRAPH, () -> routeGraphProvider.getSnapshot(page.getDayOfWeek()));
+        List<List<TransportationResponseDTO>> routes = hydrateRoutes(transportationDtos.current(), graph, page.getRoutes());
+        return routes == null ? null : new RoutePageDTO(routes, page.getNextCursor());
+    }
 
-                return dtoRoutes;
-            } catch (Exception ex) {
-                logger.error("Error finding routes: {}", ex.getMessage(), ex);
+    private List<RouteDestinationDTO> hydrateDestinations(CachedRouteDestinations cached) {
+        RouteGraphSnapshot graph = metrics.time(RouteSearchMetrics.GRAPH, () -> routeGraphProvider.getSnapshot(cached.getDayOfWeek()));
+        TransportationDtoTable.Snapshot dtos = transportationDtos.current();
+        List<RouteDestinationDTO> results = new ArrayList<>(cached.getDestinations().size());
+        for (CachedRouteDestinations.Destination destination : cached.getDestinations()) {
+            int node = graph.indexOf(destination.getLocationId());
+            List<List<TransportationResponseDTO>> routes = hydrateRoutes(dtos, graph, destination.getRoutes());
+            if (node < 0 || routes == null) {
+                return null;
+            }
+            results.add(new RouteDestinationDTO(LocationDTO.fromEntity(graph.location(node)), destination.getDistance(), routes));
+        }
+        return results;
+    }
 
-                if (ex instanceof RouteServiceException) {
-                    throw (RouteServiceException) ex;
+    /**
+     * Looks up the transportation DTOs of routes given by transportation ids, or returns {@code null}
+     * if one of them is not in the graph.
+     */
+    private List<List<TransportationResponseDTO>> hydrateRoutes(TransportationDtoTable.Snapshot dtos, RouteGraphSnapshot graph,
+                                                                long[][] routeIds) {
+        return metrics.time(RouteSearchMetrics.MAPPING, () -> {
+            List<List<TransportationResponseDTO>> routes = new ArrayList<>(routeIds.length);
+            for (long[] ids : routeIds) {
+                List<TransportationResponseDTO> route = dtos.route(graph, ids);
+                if (route == null) {
+                    return null;
                 }
-                throw new RouteServiceException("Error finding routes", ex);
+                routes.add(route);
             }
+            return routes;
         });
     }
 
+    private static long[][] routeIds(List<List<TransportationResponseDTO>> routes) {
+        long[][] ids = new long[routes.size()][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = routes.get(i).stream().mapToLong(TransportationResponseDTO::getId).toArray();
+        }
+        return ids;
+    }
 
-    @Override
-    @Async("asyncExecutor")
-    public CompletableFuture<List<List<TransportationResponseDTO>>> findRoutes(Long originId, Long destinationId, LocalDate tripDate) {
-        logger.debug("Executing asynchronous findRoutes on thread: {}", Thread.currentThread().getName());
-        List<List<TransportationResponseDTO>> result = findRoutesSync(originId, destinationId, tripDate);
-        return CompletableFuture.completedFuture(result);
+    /**
+     * Collects the routes of a query, keeping only as many as its page needs plus one to detect a next page.
+     * The route index is only consulted when {@code useIndex} is set, so a caller that already missed it does
+     * not look it up a second time.
+     */
+    private TopRouteCollector collectRoutes(RouteQuery query, boolean useIndex) {
+        Long originId = query.getOriginId();
+        Long destinationId = query.getDestinationId();
+        if (originId.equals(destinationId)) {
+            throw new RouteServiceException("Origin and destination must be different!");
+        }
+
+        TopRouteCollector collector = useIndex
+                ? metrics.time(RouteSearchMetrics.INDEX, () -> lookupIndexedRoutes(query))
+                : null;
+        if (collector == null) {
+            validateLocations(originId, destinationId);
+            collector = searchRoutes(originId, destinationId, query.getTripDate().getDayOfWeek().getValue(),
+                    query.getSortBy(), pageCapacity(query), query.getMaxDetourRatio());
+        }
+        return collector;
+    }
+
+    /**
+     * Number of routes a query's page needs plus one to detect a next page.
+     */
+    private static int pageCapacity(RouteQuery query) {
+        return query.getLimit() == null
+                ? Integer.MAX_VALUE
+                : (int) Math.min(Integer.MAX_VALUE, (long) query.getOffset() + query.getLimit() + 1);
+    }
+
+    private TopRouteCollector lookupIndexedRoutes(RouteQuery query) {
+        return lookupIndexedRoutes(query.getOriginId(), query.getDestinationId(), query.getTripDate().getDayOfWeek().getValue(),
+                query.getSortBy(), pageCapacity(query), query.getMaxDetourRatio());
+    }
+
+    /**
+     * Returns the indexed routes between two locations, or {@code null} when the route index cannot answer.
+     */
+    private TopRouteCollector lookupIndexedRoutes(Long originId, Long destinationId, int dayOfWeek,
+                                                  RouteSortOrder sortBy, int capacity, Double maxDetourRatio) {
+        RouteSet indexed = routeIndex.lookup(originId, destinationId, dayOfWeek);
+        if (indexed == null) {
+            return null;
+        }
+        logger.debug("Serving routes from {} to {} on day {} from the route index", originId, destinationId, dayOfWeek);
+        RouteGraphSnapshot graph = indexed.getGraph();
+        TopRouteCollector collector = new TopRouteCollector(graph, sortBy, capacity,
+                maxRouteDistance(graph, graph.indexOf(originId), graph.indexOf(destinationId), maxDetourRatio));
+        indexed.getRoutes().forEach(collector::offer);
+        return collector;
+    }
+
+    private void validateLocations(Long originId, Long destinationId) {
+        metrics.time(RouteSearchMetrics.LOCATIONS, () -> {
+            locationRepository.findById(originId)
+                    .orElseThrow(() -> new RouteServiceException("Origin not found with ID: " + originId));
+            return locationRepository.findById(destinationId)
+                    .orElseThrow(() -> new RouteServiceException("Destination not found with ID: " + destinationId));
+        });
+    }
+
+    private TopRouteCollector searchRoutes(Long originId, Long destinationId, int dayOfWeek, RouteSortOrder sortBy,
+                                           int capacity, Double maxDetourRatio) {
+        RouteGraphSnapshot graph = metrics.time(RouteSearchMetrics.GRAPH, () -> routeGraphProvider.getSnapshot(dayOfWeek));
+        logger.debug("Route graph for day {} has {} transportation records", dayOfWeek, graph.edgeCount());
+
+        int originNode = graph.indexOf(originId);
+        int destinationNode = graph.indexOf(destinationId);
+        TopRouteCollector collector = new TopRouteCollector(graph, sortBy, capacity,
+                maxRouteDistance(graph, originNode, destinationNode, maxDetourRatio));
+        if (originNode >= 0 && destinationNode >= 0) {
+            CountingSearch search = new CountingSearch(collector, collector);
+            metrics.time(RouteSearchMetrics.SEARCH, () -> {
+                routeEngine.enumerate(graph, originNode, destinationNode, search, search);
+                return search;
+            });
+            metrics.recordSearch(search);
+        }
+        return collector;
+    }
+
+    /**
+     * Longest route allowed by a detour ratio, unlimited without a ratio or when a location has no coordinates.
+     */
+    private static double maxRouteDistance(RouteGraphSnapshot graph, int originNode, int destinationNode, Double maxDetourRatio) {
+        if (maxDetourRatio == null || originNode < 0 || destinationNode < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return maxDetourRatio * graph.distance(originNode, destinationNode);
+    }
+
+    /**
+     * Finds the routes from one origin to each of the given destinations, from the route index when
+     * it knows all of them and otherwise with a single one-to-all expansion of the origin.
+     */
+    private Map<Long, List<List<TransportationResponseDTO>>> searchRoutesFrom(TransportationDtoTable.Snapshot dtos, Long originId,
+                                                                            Set<Long> destinationIds, int dayOfWeek,
+                                                                            RouteSortOrder sortBy, int capacity) {
+        Map<Long, TopRouteCollector> collectors = new HashMap<>();
+        for (Long destinationId : destinationIds) {
+            RouteSet indexed = routeIndex.lookup(originId, destinationId, dayOfWeek);
+            if (indexed == null) {
+                collectors.clear();
+                break;
+            }
+            TopRouteCollector collector = new TopRouteCollector(indexed.getGraph(), sortBy, capacity);
+            indexed.getRoutes().forEach(collector::offer);
+            collectors.put(destinationId, collector);
+        }
+
+        if (collectors.isEmpty()) {
+            RouteGraphSnapshot graph = metrics.time(RouteSearchMetrics.GRAPH, () -> routeGraphProvider.getSnapshot(dayOfWeek));
+            TopRouteCollector[] byNode = new TopRouteCollector[graph.nodeCount()];
+            for (Long destinationId : destinationIds) {
+                TopRouteCollector collector = new TopRouteCollector(graph, sortBy, capacity);
+                collectors.put(destinationId, collector);
+                int destinationNode = graph.indexOf(destinationId);
+                if (destinationNode >= 0) {
+                    byNode[destinationNode] = collector;
+                }
+            }
+            int originNode = graph.indexOf(originId);
+            if (originNode >= 0) {
+                LayeredRouteEnumerator.RouteVisitor visitor = (legs, length, distance) -> {
+                    TopRouteCollector collector = byNode[graph.target(legs[length - 1])];
+                    if (collector != null) {
+                        collector.visit(legs, length, distance);
+                    }
+                };
+                metrics.time(RouteSearchMetrics.SEARCH, () -> {
+                    routeEngine.enumerateFrom(graph, originNode, visitor);
+                    return visitor;
+                });
+            }
+        }
+
+        Map<Long, List<List<TransportationResponseDTO>>> routes = new HashMap<>();
+        collectors.forEach((destinationId, collector) -> {
+            List<GraphRoute> sorted = metrics.time(RouteSearchMetrics.SORT, collector::getRoutes);
+            routes.put(destinationId, toDtos(dtos, collector.getGraph(), sorted));
+        });
+        return routes;
+    }
+
+    private static String batchKey(int dayOfWeek, Long originId, Long destinationId) {
+        return dayOfWeek + "_" + originId + "_" + destinationId;
+    }
+
+    private List<List<TransportationResponseDTO>> toDtos(TransportationDtoTable.Snapshot dtos, RouteGraphSnapshot graph,
+                                                         List<GraphRoute> routes) {
+        return metrics.time(RouteSearchMetrics.MAPPING, () -> routes.stream()
+                .map(route -> toDto(dtos, graph, route))
+                .collect(Collectors.toList()));
     }
 
-    private boolean isValidRoute(List<Transportation> route) {
-        if (route.isEmpty()) {
-            return false;
-        }
-        long flightCount = route.stream().filter(t -> t.getType() == TransportationType.FLIGHT).count();
-        int size = route.size();
-        if (size == 1) {
-            return flightCount == 1;
-        } else if (size == 2) {
-            return flightCount == 1;
-        } else if (size == 3) {
-            return flightCount == 1 &&
-                    route.get(0).getType() != TransportationType.FLIGHT &&
-                    route.get(1).getType() == TransportationType.FLIGHT &&
-                    route.get(2).getType() != TransportationType.FLIGHT;
-        }
-        return false;
-    }
-
-    private double calculateDistance(Location start, Location end) {
-        if (start == null || end == null ||
-                start.getLatitude() == null || start.getLongitude() == null ||
-                end.getLatitude() == null || end.getLongitude() == null) {
-            return Double.MAX_VALUE;
-        }
-        final int R = 6371;
-        double dLat = Math.toRadians(end.getLatitude() - start.getLatitude());
-        double dLon = Math.toRadians(end.getLongitude() - start.getLongitude());
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(start.getLatitude())) *
-                        Math.cos(Math.toRadians(end.getLatitude())) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-
-    private double calculateTotalDistance(List<Transportation> route, Map<Long, Location> locationMap) {
-        double total = 0.0;
-        for (Transportation t : route) {
-            Location start = locationMap.get(t.getOrigin().getId());
-            Location end = locationMap.get(t.getDestination().getId());
-            double d = calculateDistance(start, end);
-            if (d == Double.MAX_VALUE) {
-                return Double.MAX_VALUE;
-            }
-            total += d;
-        }
-        return total;
+    private List<TransportationResponseDTO> toDto(TransportationDtoTable.Snapshot dtos, RouteGraphSnapshot graph, GraphRoute route) {
+        return Arrays.stream(route.getLegs())
+                .mapToObj(e -> dtos.get(graph, e))
+                .collect(Collectors.toList());
     }
 }
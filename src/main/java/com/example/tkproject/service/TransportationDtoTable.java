@@ -0,0 +1,131 @@
+package com.example.tkproject.service;
+
+import com.example.tkproject.dto.TransportationResponseDTO;
+import com.example.tkproject.service.graph.NetworkVersion;
+import com.example.tkproject.service.graph.RouteGraphSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Id-keyed table of the transportation DTOs returned in routes.
+ * <p>
+ * Each transportation is converted once per {@link NetworkVersion} and the same DTO is shared by every route
+ * leg referring to it, so cached routes only store transportation ids and are hydrated from this table.
+ * At most {@code route.dto-table.max-entries} DTOs are kept, so a large network does not pin a DTO for every
+ * transportation. Lookups are lock-free reads of a concurrent map; once the table is full, an arbitrary tenth
+ * of it is dropped and converted again on demand. A request takes the {@link Snapshot} of the current version
+ * once with {@link #current()} and converts all of its routes with it, so it never mixes DTOs of two network
+ * versions.
+ * The DTOs are shared between callers and must not be modified.
+ */
+@Component
+public class TransportationDtoTable {
+
+    private final NetworkVersion networkVersion;
+    private final int maxEntries;
+    private final AtomicReference<Snapshot> table;
+
+    public TransportationDtoTable(NetworkVersion networkVersion,
+                                  @Value("${route.dto-table.max-entries:100000}") int maxEntries) {
+        this.networkVersion = networkVersion;
+        this.maxEntries = maxEntries;
+        this.table = new AtomicReference<>(new Snapshot(-1, maxEntries));
+    }
+
+    /**
+     * Returns the table of the current network version, replacing the table of an older version.
+     */
+    public Snapshot current() {
+        long version = networkVersion.current();
+        Snapshot current = table.get();
+        while (current.version != version) {
+            Snapshot fresh = new Snapshot(version, maxEntries);
+            if (table.compareAndSet(current, fresh)) {
+                return fresh;
+            }
+            current = table.get();
+        }
+        return current;
+    }
+
+    /**
+     * The DTOs of one network version. A snapshot left behind by a newer version is only kept alive by the
+     * requests still using it.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final int maxEntries;
+        private final ConcurrentMap<Long, TransportationResponseDTO> dtos = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+
+        private Snapshot(long version, int maxEntries) {
+            this.version = version;
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * Returns the DTO of the transportation of an edge.
+         */
+        public TransportationResponseDTO get(RouteGraphSnapshot graph, int edge) {
+            Long id = graph.transportation(edge).getId();
+            TransportationResponseDTO dto = dtos.get(id);
+            if (dto == null) {
+                dto = dtos.computeIfAbsent(id, key -> TransportationResponseDTO.fromEntity(graph.transportation(edge)));
+                if (dtos.size() > maxEntries) {
+                    evict();
+                }
+            }
+            return dto;
+        }
+
+        /**
+         * Returns the DTOs of the legs of a route given by transportation ids,
+         * or {@code null} if one of them does not operate on the day of the graph.
+         */
+        public List<TransportationResponseDTO> route(RouteGraphSnapshot graph, long[] transportationIds) {
+            List<TransportationResponseDTO> legs = new ArrayList<>(transportationIds.length);
+            for (long id : transportationIds) {
+                TransportationResponseDTO dto = dtos.get(id);
+                if (dto == null) {
+                    int edge = graph.edgeOf(id);
+                    if (edge < 0) {
+                        return null;
+                    }
+                    dto = get(graph, edge);
+                }
+                legs.add(dto);
+            }
+            return legs;
+        }
+
+        int size() {
+            return dtos.size();
+        }
+
+        // One thread at a time trims the table to nine tenths of its bound; the others keep serving it meanwhile
+        private void evict() {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                int excess = dtos.size() - maxEntries / 10 * 9;
+                Iterator<Long> ids = dtos.keySet().iterator();
+                while (excess-- > 0 && ids.hasNext()) {
+                    ids.next();
+                    ids.remove();
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
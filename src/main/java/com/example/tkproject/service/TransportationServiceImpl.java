@@ -9,10 +9,12 @@ import com.example.tkproject.model.Location;
 import com.example.tkproject.model.enums.TransportationType;
 import com.example.tkproject.repository.TransportationRepository;
 import com.example.tkproject.repository.LocationRepository;
+import com.example.tkproject.service.graph.NetworkChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -25,17 +27,20 @@ public class TransportationServiceImpl implements TransportationService {
     private static final Logger logger = LoggerFactory.getLogger(TransportationServiceImpl.class);
     private final TransportationRepository transportationRepository;
     private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TransportationServiceImpl(TransportationRepository transportationRepository, LocationRepository locationRepository) {
+    public TransportationServiceImpl(TransportationRepository transportationRepository, LocationRepository locationRepository,
+                                     ApplicationEventPublisher eventPublisher) {
         this.transportationRepository = transportationRepository;
         this.locationRepository = locationRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Cacheable(value = "transportationsCache")
     @Override
     public List<TransportationResponseDTO> findAll() {
         logger.info("Fetching all transportations from the database.");
-        return transportationRepository.findAll()
+        return transportationRepository.findAllWithOperatingDays()
                 .stream()
                 .map(TransportationResponseDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -75,6 +80,7 @@ public class TransportationServiceImpl implements TransportationService {
 
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         logger.info("User {} created new transportation: {}", currentUser, savedTransportation);
+        eventPublisher.publishEvent(new NetworkChangedEvent("transportation created"));
 
         return TransportationResponseDTO.fromEntity(savedTransportation);
     }
@@ -104,6 +110,7 @@ public class TransportationServiceImpl implements TransportationService {
 
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         logger.info("User {} updated transportation with id: {}", currentUser, id);
+        eventPublisher.publishEvent(new NetworkChangedEvent("transportation updated"));
 
         return TransportationResponseDTO.fromEntity(updatedTransportation);
     }
@@ -118,5 +125,6 @@ public class TransportationServiceImpl implements TransportationService {
 
         transportationRepository.deleteById(id);
         logger.info("User {} deleted transportation with id: {}", currentUser, id);
+        eventPublisher.publishEvent(new NetworkChangedEvent("transportation deleted"));
     }
 }
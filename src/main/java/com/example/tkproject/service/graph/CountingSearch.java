@@ -0,0 +1,50 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteBound;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteVisitor;
+
+/**
+ * Passes a search through to a visitor and a bound while counting the partial routes the bound
+ * admits and prunes and the routes found. Counts are plain fields, a search runs on one thread.
+ */
+public final class CountingSearch implements RouteVisitor, RouteBound {
+
+    private final RouteVisitor visitor;
+    private final RouteBound bound;
+    private long expanded;
+    private long pruned;
+    private long found;
+
+    public CountingSearch(RouteVisitor visitor, RouteBound bound) {
+        this.visitor = visitor;
+        this.bound = bound;
+    }
+
+    @Override
+    public boolean admits(int minLegs, double minDistance) {
+        if (bound.admits(minLegs, minDistance)) {
+            expanded++;
+            return true;
+        }
+        pruned++;
+        return false;
+    }
+
+    @Override
+    public void visit(int[] legs, int length, double distance) {
+        found++;
+        visitor.visit(legs, length, distance);
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getPruned() {
+        return pruned;
+    }
+
+    public long getFound() {
+        return found;
+    }
+}
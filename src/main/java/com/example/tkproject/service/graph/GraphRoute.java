@@ -0,0 +1,25 @@
+package com.example.tkproject.service.graph;
+
+/**
+ * A route of a {@link RouteGraphSnapshot}: the edge indexes of its legs together with its total
+ * great-circle length, accumulated while the route was built so it never has to be recomputed.
+ * The legs array may be shared with an index and must not be modified.
+ */
+public final class GraphRoute {
+
+    private final int[] legs;
+    private final double distance;
+
+    public GraphRoute(int[] legs, double distance) {
+        this.legs = legs;
+        this.distance = distance;
+    }
+
+    public int[] getLegs() {
+        return legs;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.tkproject.service.graph;
+
+/**
+ * Enumerates the valid routes between two locations of a {@link RouteGraphSnapshot}.
+ * <p>
+ * A valid route has exactly one flight, optionally preceded by one non-flight transfer
+ * and optionally followed by one. Instead of expanding every path of up to three legs,
+ * the enumerator joins the front of the origin (the origin and the targets of its transfers)
+ * with the back of the destination (the destination and the origins of the transfers arriving
+ * at it) on the flights connecting them. It walks those flights from whichever side has fewer
+ * of them, forward from the front or backward from the back, and looks up the transfer on the
+ * other side with a binary search. Only valid routes are ever built.
+ * <p>
+ * A route ends as soon as it reaches the destination, it never passes through it.
+ * {@link #enumerateFrom} lists the routes from one origin to every reachable destination
+ * under the same rules.
+ * <p>
+ * The distance passed to the {@link RouteBound} adds the straight-line distance still to cover
+ * to the length of the partial route, an admissible estimate since every leg is at least as long
+ * as the straight line between its ends.
+ */
+public final class LayeredRouteEnumerator {
+
+    /**
+     * Receives every valid route. The legs array is reused between calls,
+     * only its first {@code length} entries belong to the current route.
+     */
+    @FunctionalInterface
+    public interface RouteVisitor {
+        void visit(int[] legs, int length, double distance);
+    }
+
+    /**
+     * Decides whether a partial route is still worth extending. The arguments are lower bounds
+     * of every route the partial route can still become.
+     */
+    @FunctionalInterface
+    public interface RouteBound {
+        RouteBound NONE = (minLegs, minDistance) -> true;
+
+        boolean admits(int minLegs, double minDistance);
+    }
+
+    private LayeredRouteEnumerator() {
+    }
+
+    public static void enumerate(RouteGraphSnapshot graph, int origin, int destination, RouteVisitor visitor) {
+        enumerate(graph, origin, destination, RouteBound.NONE, visitor);
+    }
+
+    public static void enumerate(RouteGraphSnapshot graph, int origin, int destination,
+                                 RouteBound bound, RouteVisitor visitor) {
+        if (backwardCost(graph, destination) < forwardCost(graph, origin, destination)) {
+            enumerateBackward(graph, origin, destination, bound, visitor);
+        } else {
+            enumerateForward(graph, origin, destination, bound, visitor);
+        }
+    }
+
+    /**
+     * Number of flights leaving the front of the origin.
+     */
+    static long forwardCost(RouteGraphSnapshot graph, int origin, int destination) {
+        long cost = graph.flightEnd(origin) - graph.firstEdge(origin);
+        for (int e = graph.flightEnd(origin), end = graph.endEdge(origin); e < end; e++) {
+            int airport = graph.target(e);
+            if (airport != destination) {
+                cost += graph.flightEnd(airport) - graph.firstEdge(airport);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Number of flights arriving at the back of the destination.
+     */
+    static long backwardCost(RouteGraphSnapshot graph, int destination) {
+        long cost = graph.endInboundFlights(destination) - graph.firstInboundFlight(destination);
+        for (int i = graph.firstInboundTransfer(destination), end = graph.endInboundTransfers(destination); i < end; i++) {
+            int airport = graph.origin(graph.inboundTransfer(i));
+            cost += graph.endInboundFlights(airport) - graph.firstInboundFlight(airport);
+        }
+        return cost;
+    }
+
+    static void enumerateForward(RouteGraphSnapshot graph, int origin, int destination,
+                                 RouteBound bound, RouteVisitor visitor) {
+        int[] legs = new int[3];
+        expandFlights(graph, origin, destination, legs, 0, 0.0, bound, visitor);
+
+        for (int e = graph.flightEnd(origin), end = graph.endEdge(origin); e < end; e++) {
+            int airport = graph.target(e);
+            if (airport == destination) {
+                continue;
+            }
+            double distance = graph.edgeDistance(e);
+            if (!bound.admits(2, distance + graph.minPathDistance(airport, destination))) {
+                continue;
+            }
+            legs[0] = e;
+            expandFlights(graph, airport, destination, legs, 1, distance, bound, visitor);
+        }
+    }
+
+    private static void expandFlights(RouteGraphSnapshot graph, int airport, int destination, int[] legs, int depth,
+                                      double prefixDistance, RouteBound bound, RouteVisitor visitor) {
+        for (int f = graph.firstEdge(airport), end = graph.flightEnd(airport); f < end; f++) {
+            int arrival = graph.target(f);
+            double distance = prefixDistance + graph.edgeDistance(f);
+            legs[depth] = f;
+            if (arrival == destination) {
+                visitor.visit(legs, depth + 1, distance);
+                continue;
+            }
+            if (!bound.admits(depth + 2, distance + graph.minPathDistance(arrival, destination))) {
+                continue;
+            }
+            int last = graph.endInboundTransfers(destination);
+            for (int i = graph.findInboundTransfers(destination, arrival); i < last; i++) {
+                int transfer = graph.inboundTransfer(i);
+                if (graph.origin(transfer) != arrival) {
+                    break;
+                }
+                legs[depth + 1] = transfer;
+                visitor.visit(legs, depth + 2, distance + graph.edgeDistance(transfer));
+            }
+        }
+    }
+
+    static void enumerateBackward(RouteGraphSnapshot graph, int origin, int destination,
+                                  RouteBound bound, RouteVisitor visitor) {
+        int[] legs = new int[3];
+        expandFlightsBackward(graph, origin, destination, destination, -1, 0.0, legs, bound, visitor);
+
+        for (int i = graph.firstInboundTransfer(destination), end = graph.endInboundTransfers(destination); i < end; i++) {
+            int transfer = graph.inboundTransfer(i);
+            int airport = graph.origin(transfer);
+            if (airport == destination) {
+                continue;
+            }
+            double distance = graph.edgeDistance(transfer);
+            if (!bound.admits(2, distance + graph.minPathDistance(origin, airport))) {
+                continue;
+            }
+            expandFlightsBackward(graph, origin, destination, airport, transfer, distance, legs, bound, visitor);
+        }
+    }
+
+    /**
+     * Joins the flights arriving at {@code airport} with the origin, directly or through one of its transfers.
+     * {@code lastTransfer} is the transfer from {@code airport} to the destination, or -1 if airport is the destination.
+     */
+    private static void expandFlightsBackward(RouteGraphSnapshot graph, int origin, int destination, int airport,
+                                              int lastTransfer, double suffixDistance, int[] legs,
+                                              RouteBound bound, RouteVisitor visitor) {
+        int suffixLegs = lastTransfer < 0 ? 1 : 2;
+        for (int i = graph.firstInboundFlight(airport), end = graph.endInboundFlights(airport); i < end; i++) {
+            int flight = graph.inboundFlight(i);
+            int departure = graph.origin(flight);
+            if (departure == destination) {
+                continue;
+            }
+            double distance = suffixDistance + graph.edgeDistance(flight);
+            if (departure == origin) {
+                legs[0] = flight;
+                legs[1] = lastTransfer;
+                visitor.visit(legs, suffixLegs, distance);
+            }
+            if (!bound.admits(suffixLegs + 1, distance + graph.minPathDistance(origin, departure))) {
+                continue;
+            }
+            for (int t = graph.findOutboundTransfers(origin, departure), last = graph.endEdge(origin);
+                 t < last && graph.target(t) == departure; t++) {
+                legs[0] = t;
+                legs[1] = flight;
+                legs[2] = lastTransfer;
+                visitor.visit(legs, suffixLegs + 1, distance + graph.edgeDistance(t));
+            }
+        }
+    }
+
+    /**
+     * Enumerates the valid routes from the origin to every other location.
+     * The destination of a route is the target of its last leg.
+     */
+    public static void enumerateFrom(RouteGraphSnapshot graph, int origin, RouteVisitor visitor) {
+        int[] legs = new int[3];
+        expandFlightsFrom(graph, origin, origin, legs, 0, 0.0, visitor);
+
+        for (int e = graph.flightEnd(origin), end = graph.endEdge(origin); e < end; e++) {
+            legs[0] = e;
+            expandFlightsFrom(graph, origin, graph.target(e), legs, 1, graph.edgeDistance(e), visitor);
+        }
+    }
+
+    private static void expandFlightsFrom(RouteGraphSnapshot graph, int origin, int airport, int[] legs, int depth,
+                                          double prefixDistance, RouteVisitor visitor) {
+        for (int f = graph.firstEdge(airport), end = graph.flightEnd(airport); f < end; f++) {
+            int arrival = graph.target(f);
+            double distance = prefixDistance + graph.edgeDistance(f);
+            legs[depth] = f;
+            if (arrival != origin) {
+                visitor.visit(legs, depth + 1, distance);
+            }
+            for (int t = graph.flightEnd(arrival), last = graph.endEdge(arrival); t < last; t++) {
+                int destination = graph.target(t);
+                if (destination == origin || destination == airport) {
+                    continue;
+                }
+                legs[depth + 1] = t;
+                visitor.visit(legs, depth + 2, distance + graph.edgeDistance(t));
+            }
+        }
+    }
+}
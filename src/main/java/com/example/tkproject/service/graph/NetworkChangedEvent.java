@@ -0,0 +1,23 @@
+package com.example.tkproject.service.graph;
+
+/**
+ * Published after a location or transportation has been created, updated or deleted,
+ * so that components deriving data from the network can refresh it.
+ */
+public class NetworkChangedEvent {
+
+    private final String reason;
+
+    public NetworkChangedEvent(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkChangedEvent{reason='" + reason + "'}";
+    }
+}
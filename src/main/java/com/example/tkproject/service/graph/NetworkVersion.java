@@ -0,0 +1,117 @@
+package com.example.tkproject.service.graph;
+
+import jakarta.annotation.PreDestroy;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the route network, bumped on every {@link NetworkChangedEvent}.
+ * <p>
+ * The version is part of every route cache key and is stamped on route graphs and the route index, so a single
+ * increment makes all data derived from an older network unreachable; old cache entries simply expire.
+ * When {@code cache.network-version.enabled} is set, the version is a Redis counter shared by all instances.
+ * An increment is announced on a topic, and the local copy is also re-read at most every {@code refresh-ms},
+ * so an instance that missed the announcement catches up quickly. When disabled the version is local.
+ */
+@Component
+public class NetworkVersion {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkVersion.class);
+
+    private static final String KEY = "network:version";
+    private static final String TOPIC = "network:version:changed";
+
+    private final RAtomicLong counter;
+    private final RTopic topic;
+    private final int listenerId;
+    private final long refreshNanos;
+    private final AtomicLong version = new AtomicLong();
+    private volatile long readAt;
+
+    public NetworkVersion(ObjectProvider<RedissonClient> redissonClient,
+                          @Value("${cache.network-version.enabled:false}") boolean enabled,
+                          @Value("${cache.network-version.refresh-ms:1000}") long refreshMillis) {
+        this.refreshNanos = refreshMillis * 1_000_000L;
+        if (enabled) {
+            RedissonClient client = redissonClient.getObject();
+            this.counter = client.getAtomicLong(KEY);
+            this.topic = client.getTopic(TOPIC);
+            this.listenerId = topic.addListener(Long.class, (channel, changed) -> advance(changed));
+            refresh();
+        } else {
+            this.counter = null;
+            this.topic = null;
+            this.listenerId = -1;
+        }
+    }
+
+    /**
+     * Returns the current network version, reading it from Redis if the local copy is older than {@code refresh-ms}.
+     */
+    public long current() {
+        if (counter != null && System.nanoTime() - readAt > refreshNanos) {
+            refresh();
+        }
+        return version.get();
+    }
+
+    /**
+     * Increments the network version and tells the other instances about it.
+     */
+    public long bump() {
+        if (counter == null) {
+            return version.incrementAndGet();
+        }
+        long bumped = counter.incrementAndGet();
+        long known = version.get();
+        if (bumped <= known) {
+            // The counter was lost, e.g. Redis was flushed; move it past every version handed out so far.
+            bumped = counter.addAndGet(known - bumped + 1);
+        }
+        advance(bumped);
+        try {
+            topic.publish(bumped);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not announce network version {}: {}", bumped, ex.getMessage());
+        }
+        return bumped;
+    }
+
+    @Order(-1)
+    @EventListener
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        long bumped = bump();
+        logger.debug("Network version is now {} after {}", bumped, event);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (topic != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    private void refresh() {
+        try {
+            advance(counter.get());
+        } catch (RuntimeException ex) {
+            logger.warn("Could not read network version, keeping {}: {}", version.get(), ex.getMessage());
+        } finally {
+            readAt = System.nanoTime();
+        }
+    }
+
+    private void advance(long seen) {
+        version.accumulateAndGet(seen, Math::max);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.enums.TransportationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic automaton over transportation types accepting exactly the leg type sequences allowed by
+ * a {@link RouteRules}. A state stands for the legs taken so far, the flights among them and the
+ * non-flight transfers at their end. States from which no accepting state can be reached are removed,
+ * so a search following the automaton drops a route prefix as soon as it can no longer become valid.
+ */
+public final class RouteAutomaton {
+
+    public static final int DEAD = -1;
+
+    private static final TransportationType[] TYPES = TransportationType.values();
+
+    private final int maxLegs;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    private final int[] minLegsToAccept;
+
+    private RouteAutomaton(int maxLegs, int[] transitions, boolean[] accepting, int[] minLegsToAccept) {
+        this.maxLegs = maxLegs;
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.minLegsToAccept = minLegsToAccept;
+    }
+
+    public static RouteAutomaton compile(RouteRules rules) {
+        // Explore (legs, flights, consecutive transfers) states breadth first; legs only grow, so the order is topological.
+        List<int[]> states = new ArrayList<>();
+        Map<Integer, Integer> ids = new HashMap<>();
+        List<int[]> edges = new ArrayList<>();
+        states.add(new int[]{0, 0, 0});
+        ids.put(0, 0);
+        for (int s = 0; s < states.size(); s++) {
+            int[] state = states.get(s);
+            int[] next = new int[TYPES.length];
+            Arrays.fill(next, DEAD);
+            for (TransportationType type : TYPES) {
+                int legs = state[0] + 1;
+                boolean flight = type == TransportationType.FLIGHT;
+                int flights = state[1] + (flight ? 1 : 0);
+                int transfers = flight ? 0 : state[2] + 1;
+                if (legs > rules.getMaxLegs() || flights > rules.getMaxFlights()
+                        || transfers > rules.getMaxConsecutiveTransfers() || !rules.allows(legs, type)) {
+                    continue;
+                }
+                int key = (legs * 64 + flights) * 64 + transfers;
+                Integer id = ids.get(key);
+                if (id == null) {
+                    id = states.size();
+                    ids.put(key, id);
+                    states.add(new int[]{legs, flights, transfers});
+                }
+                next[type.ordinal()] = id;
+            }
+            edges.add(next);
+        }
+
+        int count = states.size();
+        boolean[] accepts = new boolean[count];
+        int[] distance = new int[count];
+        for (int s = count - 1; s >= 0; s--) {
+            accepts[s] = states.get(s)[0] >= 1 && states.get(s)[1] >= rules.getMinFlights();
+            distance[s] = accepts[s] ? 0 : Integer.MAX_VALUE;
+            for (int target : edges.get(s)) {
+                if (target != DEAD && distance[target] != Integer.MAX_VALUE) {
+                    distance[s] = Math.min(distance[s], distance[target] + 1);
+                }
+            }
+        }
+
+        // Keep the start state and the live states, renumbered densely with the start state first.
+        int[] renumbered = new int[count];
+        int live = 0;
+        for (int s = 0; s < count; s++) {
+            renumbered[s] = s == 0 || distance[s] != Integer.MAX_VALUE ? live++ : DEAD;
+        }
+        int[] transitions = new int[live * TYPES.length];
+        boolean[] accepting = new boolean[live];
+        int[] minLegsToAccept = new int[live];
+        for (int s = 0; s < count; s++) {
+            int id = renumbered[s];
+            if (id == DEAD) {
+                continue;
+            }
+            accepting[id] = accepts[s];
+            minLegsToAccept[id] = distance[s];
+            int[] next = edges.get(s);
+            for (int t = 0; t < TYPES.length; t++) {
+                transitions[id * TYPES.length + t] = next[t] == DEAD ? DEAD : renumbered[next[t]];
+            }
+        }
+        return new RouteAutomaton(rules.getMaxLegs(), transitions, accepting, minLegsToAccept);
+    }
+
+    public int start() {
+        return 0;
+    }
+
+    /**
+     * Returns the state after a leg of the given type, or {@link #DEAD} if no valid route starts this way.
+     */
+    public int next(int state, byte type) {
+        return transitions[state * TYPES.length + type];
+    }
+
+    public boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * Fewest further legs needed to reach an accepting state.
+     */
+    public int minLegsToAccept(int state) {
+        return minLegsToAccept[state];
+    }
+
+    public int maxLegs() {
+        return maxLegs;
+    }
+
+    public int stateCount() {
+        return accepting.length;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteBound;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enumerates the routes allowed by the configured {@link RouteRules}. The default rules use the
+ * specialised {@link LayeredRouteEnumerator} join, any other rules the automaton driven {@link RuleRouteEnumerator}.
+ */
+@Component
+public class RouteEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteEngine.class);
+
+    private final RouteRules rules;
+    private final RouteAutomaton automaton;
+    private final boolean layered;
+
+    public RouteEngine(RouteRules rules) {
+        this.rules = rules;
+        this.automaton = RouteAutomaton.compile(rules);
+        this.layered = rules.isDefault();
+        logger.info("Route rules {} compiled into {} automaton states{}", rules, automaton.stateCount(),
+                layered ? ", using the layered enumerator" : "");
+    }
+
+    public RouteRules getRules() {
+        return rules;
+    }
+
+    public void enumerate(RouteGraphSnapshot graph, int origin, int destination, RouteBound bound, RouteVisitor visitor) {
+        if (layered) {
+            LayeredRouteEnumerator.enumerate(graph, origin, destination, bound, visitor);
+        } else {
+            RuleRouteEnumerator.enumerate(graph, automaton, origin, destination, bound, visitor);
+        }
+    }
+
+    public void enumerateFrom(RouteGraphSnapshot graph, int origin, RouteVisitor visitor) {
+        if (layered) {
+            LayeredRouteEnumerator.enumerateFrom(graph, origin, visitor);
+        } else {
+            RuleRouteEnumerator.enumerateFrom(graph, automaton, origin, visitor);
+        }
+    }
+}
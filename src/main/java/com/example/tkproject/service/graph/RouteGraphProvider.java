@@ -0,0 +1,124 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.repository.TransportationRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds one {@link RouteGraphSnapshot} per day of week.
+ * Snapshots are built lazily from the database, shared by all route searches
+ * and rebuilt once they are older than {@code route.graph.max-age-ms} or the {@link NetworkVersion} changes,
+ * including changes made on another instance.
+ * Loads are serialized per day with a {@link ReentrantLock} rather than inside a map compute,
+ * so a virtual thread waiting on the database does not pin its carrier thread.
+ */
+@Component
+public class RouteGraphProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteGraphProvider.class);
+
+    private final TransportationRepository transportationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RouteSearchMetrics metrics;
+    private final NetworkVersion networkVersion;
+    private final long maxAgeMillis;
+    private final ConcurrentMap<Integer, VersionedSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final ReentrantLock[] loadLocks = new ReentrantLock[8];
+
+    public RouteGraphProvider(TransportationRepository transportationRepository,
+                              PlatformTransactionManager transactionManager,
+                              RouteSearchMetrics metrics,
+                              NetworkVersion networkVersion,
+                              @Value("${route.graph.max-age-ms:300000}") long maxAgeMillis) {
+        this.transportationRepository = transportationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.metrics = metrics;
+        this.networkVersion = networkVersion;
+        this.maxAgeMillis = maxAgeMillis;
+        for (int day = 0; day < loadLocks.length; day++) {
+            loadLocks[day] = new ReentrantLock();
+        }
+    }
+
+    public RouteGraphSnapshot getSnapshot(int dayOfWeek) {
+        long version = networkVersion.current();
+        VersionedSnapshot current = snapshots.get(dayOfWeek);
+        if (isCurrent(current, version)) {
+            return current.snapshot;
+        }
+        ReentrantLock lock = loadLocks[dayOfWeek];
+        lock.lock();
+        try {
+            current = snapshots.get(dayOfWeek);
+            if (isCurrent(current, version)) {
+                return current.snapshot;
+            }
+            // A snapshot loaded while the network changed is stamped with the old version and reloaded on next use.
+            RouteGraphSnapshot snapshot = load(dayOfWeek);
+            snapshots.put(dayOfWeek, new VersionedSnapshot(snapshot, version));
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        logger.debug("Invalidating {} route graph snapshots", snapshots.size());
+        snapshots.clear();
+    }
+
+    @Order(0)
+    @EventListener
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        invalidate();
+    }
+
+    private boolean isCurrent(VersionedSnapshot current, long version) {
+        return current != null && current.version == version
+                && System.currentTimeMillis() - current.snapshot.getCreatedAt() <= maxAgeMillis;
+    }
+
+    private RouteGraphSnapshot load(int dayOfWeek) {
+        return transactionTemplate.execute(status -> {
+            List<Transportation> transports = metrics.time(RouteSearchMetrics.GRAPH_QUERY,
+                    () -> transportationRepository.findByOperatingDaysContaining(dayOfWeek));
+            metrics.time(RouteSearchMetrics.HIBERNATE_INITIALIZATION, () -> {
+                transports.forEach(t -> {
+                    if (t.getOperatingDays() != null) {
+                        Hibernate.initialize(t.getOperatingDays());
+                    }
+                });
+                return transports;
+            });
+            RouteGraphSnapshot snapshot = metrics.time(RouteSearchMetrics.GRAPH_BUILD,
+                    () -> RouteGraphSnapshot.build(dayOfWeek, transports));
+            logger.info("Built route graph for day {}: {} locations, {} transportations",
+                    dayOfWeek, snapshot.nodeCount(), snapshot.edgeCount());
+            return snapshot;
+        });
+    }
+
+    private static final class VersionedSnapshot {
+        final RouteGraphSnapshot snapshot;
+        final long version;
+
+        VersionedSnapshot(RouteGraphSnapshot snapshot, long version) {
+            this.snapshot = snapshot;
+            this.version = version;
+        }
+    }
+}
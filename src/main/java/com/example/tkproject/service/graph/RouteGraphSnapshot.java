@@ -0,0 +1,418 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+import com.example.tkproject.util.GeoUtil;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, array-backed view of the transportation network for a single day of week.
+ * Locations are addressed by dense int node indexes and outgoing edges are stored in
+ * CSR form: the edges leaving node {@code n} are {@code [firstEdge(n), endEdge(n))},
+ * flights first ({@code [firstEdge(n), flightEnd(n))}) followed by the non-flight transfers,
+ * each group ordered by target. Two reverse CSR indexes list the flights and the non-flight
+ * transfers arriving at each node, ordered by origin, so the edges between two given locations
+ * can be found with a binary search from either end.
+ * <p>
+ * Location coordinates are converted to radians once, and the great-circle length of every
+ * edge is computed when the snapshot is built, so searches only read them from arrays.
+ */
+public final class RouteGraphSnapshot {
+
+    public static final byte FLIGHT = (byte) TransportationType.FLIGHT.ordinal();
+
+    /**
+     * Length of a leg or route touching a location without coordinates. It sorts after every known distance.
+     */
+    public static final double UNKNOWN_DISTANCE = Double.POSITIVE_INFINITY;
+
+    private static final TransportationType[] TYPES = TransportationType.values();
+
+    private final int dayOfWeek;
+    private final long createdAt;
+
+    private final long[] locationIds;
+    private final Location[] locations;
+    private final double[] latitudeRad;
+    private final double[] longitudeRad;
+    private final double[] cosLatitude;
+
+    private final int[] edgeStart;
+    private final int[] flightEnd;
+    private final int[] edgeOrigin;
+    private final int[] edgeTarget;
+    private final byte[] edgeType;
+    private final Transportation[] edgeSource;
+    private final double[] edgeDistance;
+
+    private final int[] inboundTransferStart;
+    private final int[] inboundTransfers;
+    private final int[] inboundFlightStart;
+    private final int[] inboundFlights;
+
+    // Edges ordered by transportation id, built on first use by edgeOf
+    private volatile EdgesById edgesById;
+
+    private RouteGraphSnapshot(int dayOfWeek, long[] locationIds, Location[] locations,
+                               int[] edgeStart, int[] flightEnd, int[] edgeOrigin, int[] edgeTarget,
+                               byte[] edgeType, Transportation[] edgeSource,
+                               int[] inboundTransferStart, int[] inboundTransfers,
+                               int[] inboundFlightStart, int[] inboundFlights) {
+        int nodeCount = locationIds.length;
+        this.dayOfWeek = dayOfWeek;
+        this.createdAt = System.currentTimeMillis();
+        this.locationIds = locationIds;
+        this.locations = locations;
+        this.latitudeRad = new double[nodeCount];
+        this.longitudeRad = new double[nodeCount];
+        this.cosLatitude = new double[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            Location location = locations[n];
+            if (location.getLatitude() == null || location.getLongitude() == null) {
+                latitudeRad[n] = Double.NaN;
+                longitudeRad[n] = Double.NaN;
+                cosLatitude[n] = Double.NaN;
+            } else {
+                latitudeRad[n] = Math.toRadians(location.getLatitude());
+                longitudeRad[n] = Math.toRadians(location.getLongitude());
+                cosLatitude[n] = Math.cos(latitudeRad[n]);
+            }
+        }
+        this.edgeStart = edgeStart;
+        this.flightEnd = flightEnd;
+        this.edgeOrigin = edgeOrigin;
+        this.edgeTarget = edgeTarget;
+        this.edgeType = edgeType;
+        this.edgeSource = edgeSource;
+        this.edgeDistance = new double[edgeTarget.length];
+        for (int e = 0; e < edgeTarget.length; e++) {
+            edgeDistance[e] = distance(edgeOrigin[e], edgeTarget[e]);
+        }
+        this.inboundTransferStart = inboundTransferStart;
+        this.inboundTransfers = inboundTransfers;
+        this.inboundFlightStart = inboundFlightStart;
+        this.inboundFlights = inboundFlights;
+    }
+
+    /**
+     * Builds a snapshot from the transportations operating on the given day.
+     * The transportations must be fully initialized, the snapshot keeps references to them.
+     */
+    public static RouteGraphSnapshot build(int dayOfWeek, List<Transportation> transportations) {
+        long[] ids = new long[transportations.size() * 2];
+        int idCount = 0;
+        for (Transportation t : transportations) {
+            ids[idCount++] = t.getOrigin().getId();
+            ids[idCount++] = t.getDestination().getId();
+        }
+        Arrays.sort(ids, 0, idCount);
+        int nodeCount = 0;
+        for (int i = 0; i < idCount; i++) {
+            if (nodeCount == 0 || ids[nodeCount - 1] != ids[i]) {
+                ids[nodeCount++] = ids[i];
+            }
+        }
+        long[] locationIds = Arrays.copyOf(ids, nodeCount);
+        Location[] locations = new Location[nodeCount];
+
+        int edgeCount = transportations.size();
+        int[] origins = new int[edgeCount];
+        int[] destinations = new int[edgeCount];
+        int[] edgeStart = new int[nodeCount + 1];
+        int[] flightCount = new int[nodeCount];
+        int[] inboundTransferStart = new int[nodeCount + 1];
+        int[] inboundFlightStart = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            Transportation t = transportations.get(i);
+            int origin = Arrays.binarySearch(locationIds, t.getOrigin().getId());
+            int destination = Arrays.binarySearch(locationIds, t.getDestination().getId());
+            locations[origin] = t.getOrigin();
+            locations[destination] = t.getDestination();
+            origins[i] = origin;
+            destinations[i] = destination;
+            edgeStart[origin + 1]++;
+            if (t.getType() == TransportationType.FLIGHT) {
+                flightCount[origin]++;
+                inboundFlightStart[destination + 1]++;
+            } else {
+                inboundTransferStart[destination + 1]++;
+            }
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            edgeStart[n + 1] += edgeStart[n];
+            inboundTransferStart[n + 1] += inboundTransferStart[n];
+            inboundFlightStart[n + 1] += inboundFlightStart[n];
+        }
+
+        // Placing the transportations in destination order keeps every outgoing group sorted by target.
+        int[] byDestination = new int[edgeCount];
+        int[] destinationCursor = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            destinationCursor[destinations[i] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            destinationCursor[n + 1] += destinationCursor[n];
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            byDestination[destinationCursor[destinations[i]]++] = i;
+        }
+
+        int[] flightEnd = new int[nodeCount];
+        int[] flightCursor = new int[nodeCount];
+        int[] transferCursor = new int[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            flightEnd[n] = edgeStart[n] + flightCount[n];
+            flightCursor[n] = edgeStart[n];
+            transferCursor[n] = flightEnd[n];
+        }
+
+        int[] edgeOrigin = new int[edgeCount];
+        int[] edgeTarget = new int[edgeCount];
+        byte[] edgeType = new byte[edgeCount];
+        Transportation[] edgeSource = new Transportation[edgeCount];
+        for (int i : byDestination) {
+            Transportation t = transportations.get(i);
+            int origin = origins[i];
+            int e = t.getType() == TransportationType.FLIGHT ? flightCursor[origin]++ : transferCursor[origin]++;
+            edgeOrigin[e] = origin;
+            edgeTarget[e] = destinations[i];
+            edgeType[e] = (byte) t.getType().ordinal();
+            edgeSource[e] = t;
+        }
+
+        // Edges are grouped by origin, so filling in edge order keeps every inbound block sorted by origin.
+        int[] inboundTransfers = new int[inboundTransferStart[nodeCount]];
+        int[] inboundFlights = new int[inboundFlightStart[nodeCount]];
+        int[] inboundTransferCursor = Arrays.copyOf(inboundTransferStart, nodeCount);
+        int[] inboundFlightCursor = Arrays.copyOf(inboundFlightStart, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            if (edgeType[e] == FLIGHT) {
+                inboundFlights[inboundFlightCursor[edgeTarget[e]]++] = e;
+            } else {
+                inboundTransfers[inboundTransferCursor[edgeTarget[e]]++] = e;
+            }
+        }
+
+        return new RouteGraphSnapshot(dayOfWeek, locationIds, locations, edgeStart, flightEnd, edgeOrigin, edgeTarget,
+                edgeType, edgeSource, inboundTransferStart, inboundTransfers, inboundFlightStart, inboundFlights);
+    }
+
+    public int getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int nodeCount() {
+        return locationIds.length;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * Returns the node index of the given location, or -1 if no transportation touches it on this day.
+     */
+    public int indexOf(long locationId) {
+        int index = Arrays.binarySearch(locationIds, locationId);
+        return index >= 0 ? index : -1;
+    }
+
+    public long locationId(int node) {
+        return locationIds[node];
+    }
+
+    public Location location(int node) {
+        return locations[node];
+    }
+
+    public int firstEdge(int node) {
+        return edgeStart[node];
+    }
+
+    public int endEdge(int node) {
+        return edgeStart[node + 1];
+    }
+
+    /**
+     * End (exclusive) of the flights leaving the node, which is also the first of its non-flight transfers.
+     */
+    public int flightEnd(int node) {
+        return flightEnd[node];
+    }
+
+    /**
+     * Returns the first position in the inbound transfer index of {@code target} whose transfer
+     * leaves from {@code origin}. The transfers from {@code origin} to {@code target} are the
+     * following positions for which {@link #origin(int)} of {@link #inboundTransfer(int)} is {@code origin}.
+     */
+    public int findInboundTransfers(int target, int origin) {
+        int low = inboundTransferStart[target];
+        int high = inboundTransferStart[target + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edgeOrigin[inboundTransfers[mid]] < origin) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int endInboundTransfers(int target) {
+        return inboundTransferStart[target + 1];
+    }
+
+    public int inboundTransfer(int position) {
+        return inboundTransfers[position];
+    }
+
+    /**
+     * Returns the first flight leaving {@code origin} whose target is {@code target} or later.
+     * The flights from {@code origin} to {@code target} are the following edges up to {@link #flightEnd(int)}
+     * for which {@link #target(int)} is {@code target}.
+     */
+    public int findOutboundFlights(int origin, int target) {
+        return lowerBoundByTarget(edgeStart[origin], flightEnd[origin], target);
+    }
+
+    /**
+     * Returns the first non-flight transfer leaving {@code origin} whose target is {@code target} or later.
+     * The transfers from {@code origin} to {@code target} are the following edges up to {@link #endEdge(int)}
+     * for which {@link #target(int)} is {@code target}.
+     */
+    public int findOutboundTransfers(int origin, int target) {
+        return lowerBoundByTarget(flightEnd[origin], edgeStart[origin + 1], target);
+    }
+
+    private int lowerBoundByTarget(int low, int high, int target) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edgeTarget[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The flights arriving at the node are the positions {@code [firstInboundFlight(n), endInboundFlights(n))}
+     * of the inbound flight index, ordered by origin.
+     */
+    public int firstInboundFlight(int target) {
+        return inboundFlightStart[target];
+    }
+
+    public int endInboundFlights(int target) {
+        return inboundFlightStart[target + 1];
+    }
+
+    public int inboundFlight(int position) {
+        return inboundFlights[position];
+    }
+
+    public int firstInboundTransfer(int target) {
+        return inboundTransferStart[target];
+    }
+
+    public int origin(int edge) {
+        return edgeOrigin[edge];
+    }
+
+    public int target(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public byte type(int edge) {
+        return edgeType[edge];
+    }
+
+    public boolean isFlight(int edge) {
+        return edgeType[edge] == FLIGHT;
+    }
+
+    public TransportationType transportationType(int edge) {
+        return TYPES[edgeType[edge]];
+    }
+
+    public Transportation transportation(int edge) {
+        return edgeSource[edge];
+    }
+
+    /**
+     * Returns the edge of the transportation with the given id, or -1 if it does not operate on this day.
+     */
+    public int edgeOf(long transportationId) {
+        EdgesById index = edgesById;
+        if (index == null) {
+            index = new EdgesById(edgeSource);
+            edgesById = index;
+        }
+        int position = Arrays.binarySearch(index.ids, transportationId);
+        return position < 0 ? -1 : index.edges[position];
+    }
+
+    /**
+     * Great-circle length of the edge in kilometres, or {@link #UNKNOWN_DISTANCE}.
+     */
+    public double edgeDistance(int edge) {
+        return edgeDistance[edge];
+    }
+
+    /**
+     * Straight-line distance between two nodes in kilometres, or {@link #UNKNOWN_DISTANCE}.
+     */
+    public double distance(int from, int to) {
+        if (Double.isNaN(latitudeRad[from]) || Double.isNaN(latitudeRad[to])) {
+            return UNKNOWN_DISTANCE;
+        }
+        return GeoUtil.distance(latitudeRad[from], longitudeRad[from], cosLatitude[from],
+                latitudeRad[to], longitudeRad[to], cosLatitude[to]);
+    }
+
+    /**
+     * Lower bound of the length of any path between two nodes: the straight-line distance, shrunk by a tiny
+     * relative margin so that rounding never makes it exceed the summed edge distances of a real path.
+     */
+    public double minPathDistance(int from, int to) {
+        return distance(from, to) * (1.0 - 1e-9);
+    }
+
+    /**
+     * Total great-circle length of the given legs, or {@link #UNKNOWN_DISTANCE}.
+     */
+    public double routeDistance(int[] legs) {
+        double total = 0.0;
+        for (int e : legs) {
+            total += edgeDistance(e);
+        }
+        return total;
+    }
+
+    private static final class EdgesById {
+        final long[] ids;
+        final int[] edges;
+
+        EdgesById(Transportation[] edgeSource) {
+            edges = IntStream.range(0, edgeSource.length).boxed()
+                    .sorted(Comparator.comparingLong(e -> edgeSource[e].getId()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            ids = new long[edges.length];
+            for (int i = 0; i < edges.length; i++) {
+                ids[i] = edgeSource[edges[i]].getId();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.repository.LocationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Optional precomputed index of every valid route for every (origin, destination) pair and day of week.
+ * <p>
+ * When {@code route.index.enabled} is set, the index is built in the background at startup, after every
+ * {@link NetworkChangedEvent} and every {@code route.index.refresh-ms}. Each build enumerates the routes of all
+ * origins in parallel on a fork/join pool and the new index replaces the live one atomically, so lookups
+ * never see a partially built index. Until the first build completes, and whenever the {@link NetworkVersion}
+ * has moved past the version the index was built for, {@link #lookup} returns {@code null} and callers fall back
+ * to searching the graph.
+ */
+@Component
+public class RouteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteIndex.class);
+
+    private final RouteGraphProvider routeGraphProvider;
+    private final LocationRepository locationRepository;
+    private final RouteEngine routeEngine;
+    private final NetworkVersion networkVersion;
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final AtomicReference<Index> live = new AtomicReference<>();
+    private volatile long buildingVersion = -1;
+
+    public RouteIndex(RouteGraphProvider routeGraphProvider,
+                      LocationRepository locationRepository,
+                      RouteEngine routeEngine,
+                      NetworkVersion networkVersion,
+                      @Value("${route.index.enabled:false}") boolean enabled,
+                      @Value("${route.index.parallelism:0}") int parallelism,
+                      @Value("${route.index.refresh-ms:300000}") long refreshMillis) {
+        this.routeGraphProvider = routeGraphProvider;
+        this.locationRepository = locationRepository;
+        this.routeEngine = routeEngine;
+        this.networkVersion = networkVersion;
+        this.enabled = enabled;
+        if (enabled) {
+            this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "RouteIndexBuilder");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::requestRebuild, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.pool = null;
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the indexed routes between two locations sorted by distance, or {@code null}
+     * when the index is disabled, not built yet or does not know one of the locations.
+     */
+    public RouteSet lookup(long originId, long destinationId, int dayOfWeek) {
+        Index index = live.get();
+        if (index == null) {
+            return null;
+        }
+        long version = networkVersion.current();
+        if (index.version != version) {
+            // The network changed, possibly on another instance.
+            if (buildingVersion != version) {
+                requestRebuild();
+            }
+            return null;
+        }
+        if (!index.knows(originId) || !index.knows(destinationId)) {
+            return null;
+        }
+        RouteGraphSnapshot graph = index.graphs[dayOfWeek];
+        int origin = graph.indexOf(originId);
+        int destination = graph.indexOf(destinationId);
+        if (origin < 0 || destination < 0) {
+            return new RouteSet(graph, List.of());
+        }
+        GraphRoute[] routes = index.routes.get(dayOfWeek).get(pairKey(origin, destination));
+        return new RouteSet(graph, routes == null ? List.of() : Arrays.asList(routes));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    @Order(1)
+    @EventListener
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        logger.debug("Scheduling route index rebuild after {}", event);
+        requestRebuild();
+    }
+
+    /**
+     * Schedules a background rebuild unless one is already waiting to start.
+     */
+    public void requestRebuild() {
+        if (enabled && rebuildPending.compareAndSet(false, true)) {
+            scheduler.execute(this::rebuild);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            scheduler.shutdownNow();
+            pool.shutdownNow();
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        long start = System.currentTimeMillis();
+        try {
+            long version = networkVersion.current();
+            buildingVersion = version;
+            long[] locationIds = locationRepository.findAllIds().stream().mapToLong(Long::longValue).sorted().toArray();
+            RouteGraphSnapshot[] graphs = new RouteGraphSnapshot[8];
+            List<Map<Long, GraphRoute[]>> routes = new ArrayList<>(8);
+            routes.add(Map.of());
+            long routeCount = 0;
+            for (int day = 1; day <= 7; day++) {
+                RouteGraphSnapshot graph = routeGraphProvider.getSnapshot(day);
+                Map<Long, GraphRoute[]> dayRoutes = new ConcurrentHashMap<>();
+                pool.invoke(new OriginRangeTask(routeEngine, graph, 0, graph.nodeCount(), dayRoutes));
+                graphs[day] = graph;
+                routes.add(dayRoutes);
+                routeCount += dayRoutes.values().stream().mapToLong(r -> r.length).sum();
+            }
+            live.set(new Index(version, locationIds, graphs, routes));
+            logger.info("Rebuilt route index with {} routes for {} locations in {} ms",
+                    routeCount, locationIds.length, System.currentTimeMillis() - start);
+        } catch (Exception ex) {
+            logger.error("Error rebuilding route index: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private static long pairKey(int origin, int destination) {
+        return ((long) origin << 32) | destination;
+    }
+
+    private static final class Index {
+        final long version;
+        final long[] locationIds;
+        final RouteGraphSnapshot[] graphs;
+        final List<Map<Long, GraphRoute[]>> routes;
+
+        Index(long version, long[] locationIds, RouteGraphSnapshot[] graphs, List<Map<Long, GraphRoute[]>> routes) {
+            this.version = version;
+            this.locationIds = locationIds;
+            this.graphs = graphs;
+            this.routes = routes;
+        }
+
+        boolean knows(long locationId) {
+            return Arrays.binarySearch(locationIds, locationId) >= 0;
+        }
+    }
+
+    /**
+     * Indexes the routes of a range of origins, splitting the range until it is small enough.
+     */
+    private static final class OriginRangeTask extends RecursiveAction {
+
+        private static final int THRESHOLD = 16;
+
+        private final RouteEngine engine;
+        private final RouteGraphSnapshot graph;
+        private final int from;
+        private final int to;
+        private final Map<Long, GraphRoute[]> routes;
+
+        OriginRangeTask(RouteEngine engine, RouteGraphSnapshot graph, int from, int to, Map<Long, GraphRoute[]> routes) {
+            this.engine = engine;
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+            this.routes = routes;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new OriginRangeTask(engine, graph, from, mid, routes),
+                        new OriginRangeTask(engine, graph, mid, to, routes));
+                return;
+            }
+            for (int origin = from; origin < to; origin++) {
+                Map<Integer, List<GraphRoute>> byDestination = new HashMap<>();
+                engine.enumerateFrom(graph, origin, (legs, length, distance) ->
+                        byDestination.computeIfAbsent(graph.target(legs[length - 1]), d -> new ArrayList<>())
+                                .add(new GraphRoute(Arrays.copyOf(legs, length), distance)));
+                for (Map.Entry<Integer, List<GraphRoute>> entry : byDestination.entrySet()) {
+                    GraphRoute[] sorted = entry.getValue().toArray(GraphRoute[]::new);
+                    Arrays.sort(sorted, Comparator.comparingDouble(GraphRoute::getDistance));
+                    routes.put(pairKey(origin, entry.getKey()), sorted);
+                }
+            }
+        }
+    }
+}
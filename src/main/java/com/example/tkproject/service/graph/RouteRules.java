@@ -0,0 +1,127 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.enums.TransportationType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Constraints a route must satisfy: its number of legs and flights, how many non-flight transfers may
+ * follow each other and, optionally, which transportation types are allowed at a given leg position.
+ * The {@link #DEFAULT} rules are the classic ones: exactly one flight, at most one non-flight transfer
+ * before it and at most one after it.
+ */
+public final class RouteRules {
+
+    /**
+     * Longest route the rules may allow; the search is exponential in the number of legs.
+     */
+    public static final int MAX_LEGS_LIMIT = 6;
+
+    public static final RouteRules DEFAULT = new RouteRules(3, 1, 1, 1, Map.of());
+
+    private final int maxLegs;
+    private final int minFlights;
+    private final int maxFlights;
+    private final int maxConsecutiveTransfers;
+    private final Map<Integer, Set<TransportationType>> allowedTypes;
+
+    /**
+     * @param allowedTypes allowed transportation types by 1-based leg position; positions not present allow every type
+     */
+    public RouteRules(int maxLegs, int minFlights, int maxFlights, int maxConsecutiveTransfers,
+                      Map<Integer, Set<TransportationType>> allowedTypes) {
+        if (maxLegs < 1 || maxLegs > MAX_LEGS_LIMIT) {
+            throw new IllegalArgumentException("Max legs must be between 1 and " + MAX_LEGS_LIMIT);
+        }
+        if (minFlights < 0 || maxFlights < minFlights) {
+            throw new IllegalArgumentException("Flight bounds must satisfy 0 <= min flights <= max flights");
+        }
+        if (maxConsecutiveTransfers < 0) {
+            throw new IllegalArgumentException("Max consecutive transfers must not be negative");
+        }
+        this.maxLegs = maxLegs;
+        this.minFlights = minFlights;
+        this.maxFlights = maxFlights;
+        this.maxConsecutiveTransfers = maxConsecutiveTransfers;
+        this.allowedTypes = Map.copyOf(allowedTypes);
+    }
+
+    /**
+     * Parses allowed types by position written as {@code position:TYPE|TYPE;position:TYPE},
+     * for example {@code 2:FLIGHT} to require the second leg to be a flight. A blank spec allows every type.
+     */
+    public static Map<Integer, Set<TransportationType>> parseAllowedTypes(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, Set<TransportationType>> allowed = new HashMap<>();
+        for (String entry : spec.split(";")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid allowed types entry: " + entry);
+            }
+            Set<TransportationType> types = EnumSet.noneOf(TransportationType.class);
+            for (String type : parts[1].split("\\|")) {
+                types.add(TransportationType.valueOf(type.trim().toUpperCase()));
+            }
+            allowed.put(Integer.parseInt(parts[0].trim()), types);
+        }
+        return allowed;
+    }
+
+    public int getMaxLegs() {
+        return maxLegs;
+    }
+
+    public int getMinFlights() {
+        return minFlights;
+    }
+
+    public int getMaxFlights() {
+        return maxFlights;
+    }
+
+    public int getMaxConsecutiveTransfers() {
+        return maxConsecutiveTransfers;
+    }
+
+    /**
+     * Whether a leg of the given type may be taken at the given 1-based position.
+     */
+    public boolean allows(int position, TransportationType type) {
+        Set<TransportationType> types = allowedTypes.get(position);
+        return types == null || types.contains(type);
+    }
+
+    public boolean isDefault() {
+        return equals(DEFAULT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RouteRules other)) {
+            return false;
+        }
+        return maxLegs == other.maxLegs && minFlights == other.minFlights && maxFlights == other.maxFlights
+                && maxConsecutiveTransfers == other.maxConsecutiveTransfers && allowedTypes.equals(other.allowedTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxLegs, minFlights, maxFlights, maxConsecutiveTransfers, allowedTypes);
+    }
+
+    @Override
+    public String toString() {
+        return "RouteRules{maxLegs=" + maxLegs + ", minFlights=" + minFlights + ", maxFlights=" + maxFlights
+                + ", maxConsecutiveTransfers=" + maxConsecutiveTransfers + ", allowedTypes=" + allowedTypes + "}";
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tkproject.service.graph;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters of route searches. Each phase of a search is timed by {@value #PHASE_TIMER} with a
+ * {@code phase} tag, from the wait for an executor thread to the mapping of the routes to DTOs, and each
+ * search records how many partial routes it expanded and pruned and how many routes it found.
+ */
+@Component
+public class RouteSearchMetrics {
+
+    public static final String PHASE_TIMER = "route.search.phase";
+
+    public static final String QUEUE = "queue";
+    public static final String LOCATIONS = "locations";
+    public static final String GRAPH = "graph";
+    public static final String INDEX = "index";
+    public static final String SEARCH = "search";
+    public static final String SORT = "sort";
+    public static final String MAPPING = "mapping";
+    public static final String GRAPH_QUERY = "graph-query";
+    public static final String HIBERNATE_INITIALIZATION = "hibernate-initialization";
+    public static final String GRAPH_BUILD = "graph-build";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final DistributionSummary expanded;
+    private final DistributionSummary pruned;
+    private final DistributionSummary found;
+
+    public RouteSearchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.expanded = DistributionSummary.builder("route.search.states.expanded")
+                .description("Partial routes extended per search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pruned = DistributionSummary.builder("route.search.states.pruned")
+                .description("Partial routes dropped by the search bound per search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.found = DistributionSummary.builder("route.search.routes.found")
+                .description("Valid routes reached per search, before keeping the requested ones")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Timer timer(String phase) {
+        return timers.computeIfAbsent(phase, p -> Timer.builder(PHASE_TIMER)
+                .description("Time spent in each phase of a route search")
+                .tag("phase", p)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    public <T> T time(String phase, Supplier<T> step) {
+        long start = System.nanoTime();
+        try {
+            return step.get();
+        } finally {
+            timer(phase).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordSearch(CountingSearch search) {
+        expanded.record(search.getExpanded());
+        pruned.record(search.getPruned());
+        found.record(search.getFound());
+    }
+
+    /**
+     * Decorates executor tasks to record how long they waited between submission and start.
+     */
+    public TaskDecorator queueWaitDecorator() {
+        Timer queue = timer(QUEUE);
+        return task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                queue.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                task.run();
+            };
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.tkproject.service.graph;
+
+import java.util.List;
+
+/**
+ * Routes between two locations of {@code graph}.
+ */
+public final class RouteSet {
+
+    private final RouteGraphSnapshot graph;
+    private final List<GraphRoute> routes;
+
+    public RouteSet(RouteGraphSnapshot graph, List<GraphRoute> routes) {
+        this.graph = graph;
+        this.routes = routes;
+    }
+
+    public RouteGraphSnapshot getGraph() {
+        return graph;
+    }
+
+    public List<GraphRoute> getRoutes() {
+        return routes;
+    }
+
+    public int size() {
+        return routes.size();
+    }
+}
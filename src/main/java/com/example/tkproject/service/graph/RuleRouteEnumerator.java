@@ -0,0 +1,110 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteBound;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator.RouteVisitor;
+
+/**
+ * Enumerates the routes allowed by an arbitrary {@link RouteRules}, compiled into a {@link RouteAutomaton}.
+ * <p>
+ * The search walks the snapshot depth first and carries the automaton state of the current prefix;
+ * a leg leading to a dead state is never taken, so prefixes that cannot become valid routes are dropped
+ * as soon as they appear. On the last leg the rules allow, only the edges into the destination can still
+ * complete a route, and those are found with a binary search instead of scanning every outgoing edge.
+ * Like {@link LayeredRouteEnumerator}, a route ends as soon as it reaches its destination and the bound
+ * is given the straight-line distance still to cover on top of the length of the partial route.
+ */
+public final class RuleRouteEnumerator {
+
+    private RuleRouteEnumerator() {
+    }
+
+    public static void enumerate(RouteGraphSnapshot graph, RouteAutomaton automaton, int origin, int destination,
+                                 RouteBound bound, RouteVisitor visitor) {
+        int[] legs = new int[automaton.maxLegs()];
+        expand(graph, automaton, destination, origin, automaton.start(), legs, 0, 0.0, bound, visitor);
+    }
+
+    private static void expand(RouteGraphSnapshot graph, RouteAutomaton automaton, int destination, int node, int state,
+                               int[] legs, int depth, double prefixDistance, RouteBound bound, RouteVisitor visitor) {
+        if (depth + 1 == legs.length) {
+            joinDestination(graph, automaton, destination, node, state, legs, depth, prefixDistance,
+                    graph.findOutboundFlights(node, destination), graph.flightEnd(node), visitor);
+            joinDestination(graph, automaton, destination, node, state, legs, depth, prefixDistance,
+                    graph.findOutboundTransfers(node, destination), graph.endEdge(node), visitor);
+            return;
+        }
+        for (int e = graph.firstEdge(node), end = graph.endEdge(node); e < end; e++) {
+            int next = automaton.next(state, graph.type(e));
+            if (next == RouteAutomaton.DEAD) {
+                continue;
+            }
+            int target = graph.target(e);
+            double distance = prefixDistance + graph.edgeDistance(e);
+            legs[depth] = e;
+            if (target == destination) {
+                if (automaton.isAccepting(next)) {
+                    visitor.visit(legs, depth + 1, distance);
+                }
+                continue;
+            }
+            if (!bound.admits(depth + 1 + Math.max(1, automaton.minLegsToAccept(next)),
+                    distance + graph.minPathDistance(target, destination))) {
+                continue;
+            }
+            expand(graph, automaton, destination, target, next, legs, depth + 1, distance, bound, visitor);
+        }
+    }
+
+    private static void joinDestination(RouteGraphSnapshot graph, RouteAutomaton automaton, int destination, int node,
+                                        int state, int[] legs, int depth, double prefixDistance,
+                                        int from, int to, RouteVisitor visitor) {
+        for (int e = from; e < to && graph.target(e) == destination; e++) {
+            int next = automaton.next(state, graph.type(e));
+            if (next != RouteAutomaton.DEAD && automaton.isAccepting(next)) {
+                legs[depth] = e;
+                visitor.visit(legs, depth + 1, prefixDistance + graph.edgeDistance(e));
+            }
+        }
+    }
+
+    /**
+     * Enumerates the routes from the origin to every other location.
+     * The destination of a route is the target of its last leg, which the route does not pass through before.
+     */
+    public static void enumerateFrom(RouteGraphSnapshot graph, RouteAutomaton automaton, int origin, RouteVisitor visitor) {
+        int[] legs = new int[automaton.maxLegs()];
+        int[] nodes = new int[automaton.maxLegs() + 1];
+        nodes[0] = origin;
+        expandFrom(graph, automaton, automaton.start(), legs, nodes, 0, 0.0, visitor);
+    }
+
+    private static void expandFrom(RouteGraphSnapshot graph, RouteAutomaton automaton, int state, int[] legs, int[] nodes,
+                                   int depth, double prefixDistance, RouteVisitor visitor) {
+        int node = nodes[depth];
+        for (int e = graph.firstEdge(node), end = graph.endEdge(node); e < end; e++) {
+            int next = automaton.next(state, graph.type(e));
+            if (next == RouteAutomaton.DEAD) {
+                continue;
+            }
+            int target = graph.target(e);
+            double distance = prefixDistance + graph.edgeDistance(e);
+            legs[depth] = e;
+            if (automaton.isAccepting(next) && target != nodes[0] && !passesThrough(nodes, depth, target)) {
+                visitor.visit(legs, depth + 1, distance);
+            }
+            if (depth + 1 < legs.length) {
+                nodes[depth + 1] = target;
+                expandFrom(graph, automaton, next, legs, nodes, depth + 1, distance, visitor);
+            }
+        }
+    }
+
+    private static boolean passesThrough(int[] nodes, int depth, int node) {
+        for (int i = 1; i <= depth; i++) {
+            if (nodes[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
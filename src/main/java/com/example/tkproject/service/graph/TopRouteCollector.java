@@ -0,0 +1,108 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.enums.RouteSortOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best {@code capacity} routes seen so far in the requested order.
+ * <p>
+ * As a {@link LayeredRouteEnumerator.RouteBound} it rejects partial routes that cannot beat the
+ * current worst kept route once the collector is full, so the enumeration stops expanding them.
+ * Ties are broken by leg count, distance and finally transportation ids, which keeps pages stable.
+ * With a maximum distance, longer routes are never kept and partial routes that cannot stay within it are rejected.
+ */
+public final class TopRouteCollector implements LayeredRouteEnumerator.RouteVisitor, LayeredRouteEnumerator.RouteBound {
+
+    private final RouteGraphSnapshot graph;
+    private final RouteSortOrder sortOrder;
+    private final int capacity;
+    private final double maxDistance;
+    private final Comparator<GraphRoute> order;
+    private final PriorityQueue<GraphRoute> worstFirst;
+
+    public TopRouteCollector(RouteGraphSnapshot graph, RouteSortOrder sortOrder, int capacity) {
+        this(graph, sortOrder, capacity, Double.POSITIVE_INFINITY);
+    }
+
+    public TopRouteCollector(RouteGraphSnapshot graph, RouteSortOrder sortOrder, int capacity, double maxDistance) {
+        this.graph = graph;
+        this.sortOrder = sortOrder;
+        this.capacity = capacity;
+        this.maxDistance = maxDistance;
+        this.order = sortOrder == RouteSortOrder.LEGS
+                ? Comparator.comparingInt((GraphRoute r) -> r.getLegs().length).thenComparingDouble(GraphRoute::getDistance).thenComparing(this::compareIds)
+                : Comparator.comparingDouble(GraphRoute::getDistance).thenComparingInt(r -> r.getLegs().length).thenComparing(this::compareIds);
+        this.worstFirst = new PriorityQueue<>(Math.min(capacity, 64), order.reversed());
+    }
+
+    @Override
+    public boolean admits(int minLegs, double minDistance) {
+        if (minDistance > maxDistance) {
+            return false;
+        }
+        if (worstFirst.size() < capacity) {
+            return true;
+        }
+        GraphRoute worst = worstFirst.peek();
+        int worstLegs = worst.getLegs().length;
+        if (sortOrder == RouteSortOrder.LEGS) {
+            return minLegs < worstLegs || (minLegs == worstLegs && minDistance <= worst.getDistance());
+        }
+        return minDistance < worst.getDistance() || (minDistance == worst.getDistance() && minLegs <= worstLegs);
+    }
+
+    @Override
+    public void visit(int[] legs, int length, double distance) {
+        if (admits(length, distance)) {
+            keep(new GraphRoute(Arrays.copyOf(legs, length), distance));
+        }
+    }
+
+    /**
+     * Offers an already built route, for example one read from the route index.
+     */
+    public void offer(GraphRoute route) {
+        if (admits(route.getLegs().length, route.getDistance())) {
+            keep(route);
+        }
+    }
+
+    private void keep(GraphRoute route) {
+        if (worstFirst.size() < capacity) {
+            worstFirst.add(route);
+        } else if (order.compare(route, worstFirst.peek()) < 0) {
+            worstFirst.poll();
+            worstFirst.add(route);
+        }
+    }
+
+    /**
+     * Returns the kept routes, best first.
+     */
+    public List<GraphRoute> getRoutes() {
+        List<GraphRoute> routes = new ArrayList<>(worstFirst);
+        routes.sort(order);
+        return routes;
+    }
+
+    public RouteGraphSnapshot getGraph() {
+        return graph;
+    }
+
+    private int compareIds(GraphRoute r1, GraphRoute r2) {
+        int[] legs1 = r1.getLegs();
+        int[] legs2 = r2.getLegs();
+        for (int i = 0; i < Math.min(legs1.length, legs2.length); i++) {
+            int c = Long.compare(graph.transportation(legs1[i]).getId(), graph.transportation(legs2[i]).getId());
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(legs1.length, legs2.length);
+    }
+}
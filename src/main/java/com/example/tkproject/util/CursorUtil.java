@@ -0,0 +1,41 @@
+package com.example.tkproject.util;
+
+import com.example.tkproject.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page cursors. A cursor encodes the offset of the first result of the next page.
+ */
+public final class CursorUtil {
+
+    private static final String PREFIX = "offset:";
+
+    private CursorUtil() {
+    }
+
+    public static String encodeOffset(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            int offset = Integer.parseInt(decoded.substring(PREFIX.length()));
+            if (offset < 0) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            return offset;
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, ex);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.tkproject.util;
+
+import com.example.tkproject.model.Location;
+
+public final class GeoUtil {
+
+    public static final int EARTH_RADIUS_KM = 6371;
+
+    private GeoUtil() {
+    }
+
+    /**
+     * Great-circle distance in kilometres between two locations,
+     * or {@link Double#MAX_VALUE} when either location has no coordinates.
+     */
+    public static double distance(Location start, Location end) {
+        if (start == null || end == null ||
+                start.getLatitude() == null || start.getLongitude() == null ||
+                end.getLatitude() == null || end.getLongitude() == null) {
+            return Double.MAX_VALUE;
+        }
+        double startLat = Math.toRadians(start.getLatitude());
+        double endLat = Math.toRadians(end.getLatitude());
+        return distance(startLat, Math.toRadians(start.getLongitude()), Math.cos(startLat),
+                endLat, Math.toRadians(end.getLongitude()), Math.cos(endLat));
+    }
+
+    /**
+     * Great-circle distance in kilometres between two points given in radians,
+     * with the cosine of each latitude precomputed by the caller.
+     */
+    public static double distance(double startLat, double startLon, double startCosLat,
+                                  double endLat, double endLon, double endCosLat) {
+        double sinHalfLat = Math.sin((endLat - startLat) / 2);
+        double sinHalfLon = Math.sin((endLon - startLon) / 2);
+        double a = sinHalfLat * sinHalfLat + startCosLat * endCosLat * sinHalfLon * sinHalfLon;
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c;
+    }
+}
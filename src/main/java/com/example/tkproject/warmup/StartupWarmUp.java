@@ -0,0 +1,155 @@
+package com.example.tkproject.warmup;
+
+import com.example.tkproject.dto.RouteQuery;
+import com.example.tkproject.service.LocationService;
+import com.example.tkproject.service.RouteService;
+import com.example.tkproject.service.TransportationService;
+import com.example.tkproject.service.graph.RouteGraphProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms a freshly started instance before it takes traffic.
+ * <p>
+ * On {@link ApplicationReadyEvent} the route graphs of all seven weekdays are built in parallel, the location and
+ * transportation lists are loaded into their caches and, when {@code warmup.routes} lists origin and destination
+ * ids such as {@code 1-3,5-8}, those routes are searched for each weekday. {@link WarmUpHealthIndicator} reports
+ * the instance as not ready until this has finished. Failures are logged and counted but still end the warm-up,
+ * so a broken warm-up never keeps an instance out of the load balancer.
+ */
+@Component
+public class StartupWarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private final RouteGraphProvider routeGraphProvider;
+    private final LocationService locationService;
+    private final TransportationService transportationService;
+    private final RouteService routeService;
+    private final boolean enabled;
+    private final List<String> hotRoutes;
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public StartupWarmUp(RouteGraphProvider routeGraphProvider,
+                         LocationService locationService,
+                         TransportationService transportationService,
+                         RouteService routeService,
+                         @Value("${warmup.enabled:true}") boolean enabled,
+                         @Value("${warmup.routes:}") List<String> hotRoutes) {
+        this.routeGraphProvider = routeGraphProvider;
+        this.locationService = locationService;
+        this.transportationService = transportationService;
+        this.routeService = routeService;
+        this.enabled = enabled;
+        this.hotRoutes = hotRoutes;
+    }
+
+    public boolean isFinished() {
+        return !enabled || finishedAt != 0;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getFailures() {
+        return failures.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "WarmUp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void warmUp() {
+        startedAt = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(7, r -> {
+            Thread thread = new Thread(r, "WarmUp-graph");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> graphs = new ArrayList<>();
+            for (int day = 1; day <= 7; day++) {
+                int dayOfWeek = day;
+                graphs.add(CompletableFuture.runAsync(() -> run("route graph of day " + dayOfWeek,
+                        () -> routeGraphProvider.getSnapshot(dayOfWeek)), executor));
+            }
+            run("locations cache", locationService::findAll);
+            run("transportations cache", transportationService::findAll);
+            CompletableFuture.allOf(graphs.toArray(CompletableFuture[]::new)).join();
+            warmUpRoutes();
+        } finally {
+            executor.shutdown();
+            finishedAt = System.currentTimeMillis();
+            logger.info("Warm-up finished in {} ms with {} failures", finishedAt - startedAt, failures.get());
+        }
+    }
+
+    /**
+     * Searches the configured routes once per weekday, as the system user since searches log the current user.
+     */
+    private void warmUpRoutes() {
+        if (hotRoutes.isEmpty()) {
+            return;
+        }
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken("warmup", null, List.of()));
+        SecurityContextHolder.setContext(context);
+        try {
+            LocalDate today = LocalDate.now();
+            for (String route : hotRoutes) {
+                String[] ids = route.trim().split("-");
+                if (ids.length != 2) {
+                    logger.warn("Ignoring warm-up route {}, expected originId-destinationId", route);
+                    failures.incrementAndGet();
+                    continue;
+                }
+                for (int day = 0; day < 7; day++) {
+                    LocalDate date = today.plusDays(day);
+                    run("routes " + route + " on " + date.getDayOfWeek(), () -> routeService.findRoutesSync(
+                            new RouteQuery(Long.valueOf(ids[0].trim()), Long.valueOf(ids[1].trim()), date)));
+                }
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void run(String step, Runnable action) {
+        long start = System.currentTimeMillis();
+        try {
+            action.run();
+            logger.debug("Warmed up {} in {} ms", step, System.currentTimeMillis() - start);
+        } catch (Exception ex) {
+            failures.incrementAndGet();
+            logger.warn("Could not warm up {}: {}", step, ex.getMessage());
+        }
+    }
+}
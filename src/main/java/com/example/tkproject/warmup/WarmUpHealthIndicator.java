@@ -0,0 +1,32 @@
+package com.example.tkproject.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the instance as out of service until {@link StartupWarmUp} has finished.
+ * It is part of the readiness group, so the load balancer only routes to warm instances.
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final StartupWarmUp startupWarmUp;
+
+    public WarmUpHealthIndicator(StartupWarmUp startupWarmUp) {
+        this.startupWarmUp = startupWarmUp;
+    }
+
+    @Override
+    public Health health() {
+        if (!startupWarmUp.isFinished()) {
+            return Health.outOfService()
+                    .withDetail("startedAt", startupWarmUp.getStartedAt())
+                    .build();
+        }
+        return Health.up()
+                .withDetail("durationMs", Math.max(0, startupWarmUp.getFinishedAt() - startupWarmUp.getStartedAt()))
+                .withDetail("failures", startupWarmUp.getFailures())
+                .build();
+    }
+}
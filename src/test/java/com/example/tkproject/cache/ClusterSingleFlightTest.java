@@ -0,0 +1,82 @@
+package com.example.tkproject.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterSingleFlightTest {
+
+    @Mock
+    private ObjectProvider<RedissonClient> redissonClientProvider;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private RLock lock;
+
+    private Cache cache;
+    private ClusterSingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClientProvider.getObject()).thenReturn(redissonClient);
+        when(redissonClient.getTopic(anyString())).thenReturn(topic);
+        when(redissonClient.getLock(anyString())).thenReturn(lock);
+        cache = new ConcurrentMapCache("routesCache");
+        singleFlight = new ClusterSingleFlight(redissonClientProvider, true, 10000, 50);
+    }
+
+    @Test
+    void compute_ShouldComputeCacheAndAnnounce_WhenLockIsTaken() throws Exception {
+        when(lock.tryLock(0, 10000, TimeUnit.MILLISECONDS)).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+
+        assertEquals("routes", singleFlight.compute("key", cache, () -> "routes"));
+
+        assertEquals("routes", cache.get("key").get());
+        verify(topic).publish("key");
+        verify(lock).unlock();
+    }
+
+    @Test
+    void compute_ShouldUseValueOfOtherInstance_WhenLockIsHeldElsewhere() throws Exception {
+        when(lock.tryLock(0, 10000, TimeUnit.MILLISECONDS)).thenReturn(false);
+        cache.put("key", "computed elsewhere");
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals("computed elsewhere", singleFlight.compute("key", cache, () -> {
+            computations.incrementAndGet();
+            return "routes";
+        }));
+        assertEquals(0, computations.get(), "Routes computed by another instance should not be recomputed");
+    }
+
+    @Test
+    void compute_ShouldComputeLocally_WhenOtherInstanceTimesOut() throws Exception {
+        when(lock.tryLock(0, 10000, TimeUnit.MILLISECONDS)).thenReturn(false);
+
+        assertEquals("routes", singleFlight.compute("key", cache, () -> "routes"));
+        assertEquals("routes", cache.get("key").get());
+        verify(topic, never()).publish(any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.tkproject.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedCacheManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstrumentedCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new InstrumentedCacheManager(
+                new ConcurrentMapCacheManager("routesCache"), meterRegistry);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "routesCache").tag("result", result).counter().count();
+    }
+
+    @Test
+    void getCache_ShouldRecordHitsMissesAndPuts() {
+        Cache cache = cacheManager.getCache("routesCache");
+        assertSame(cache, cacheManager.getCache("routesCache"), "The decorated cache should be reused");
+
+        assertNull(cache.get("IST-LHR"));
+        cache.put("IST-LHR", List.of("IST", "LHR"));
+        assertNotNull(cache.get("IST-LHR"));
+        assertEquals(List.of("IST", "LHR"), cache.get("IST-LHR", List.class));
+
+        assertEquals(2, gets("hit"));
+        assertEquals(1, gets("miss"));
+        assertEquals(1, meterRegistry.get("cache.puts").tag("cache", "routesCache").counter().count());
+        assertEquals(2, meterRegistry.get("cache.get.latency").tag("result", "hit").timer().count());
+        assertEquals(1, meterRegistry.get("cache.put.latency").timer().count());
+    }
+
+    @Test
+    void getWithLoader_ShouldCountLoadsAsMissesAndPuts() {
+        Cache cache = cacheManager.getCache("routesCache");
+
+        assertEquals("route", cache.get("IST-LHR", () -> "route"));
+        assertEquals("route", cache.get("IST-LHR", () -> "other"));
+
+        assertEquals(1, gets("miss"));
+        assertEquals(1, gets("hit"));
+        assertEquals(1, meterRegistry.get("cache.puts").counter().count());
+    }
+
+    @Test
+    void evict_ShouldRecordEvictions() {
+        Cache cache = cacheManager.getCache("routesCache");
+        cache.put("IST-LHR", "route");
+
+        assertTrue(cache.evictIfPresent("IST-LHR"));
+        assertFalse(cache.evictIfPresent("IST-LHR"));
+        cache.clear();
+
+        assertEquals(2, meterRegistry.get("cache.evictions").counter().count());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.tkproject.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RFuture;
+import org.redisson.api.RTopic;
+import org.redisson.api.listener.MessageListener;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheManagerTest {
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private RFuture<Long> published;
+
+    private ConcurrentMapCacheManager redis;
+    private NearCacheManager cacheManager;
+    private MessageListener<String> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ArgumentCaptor<MessageListener<String>> captor = ArgumentCaptor.forClass(MessageListener.class);
+        when(topic.addListener(eq(String.class), captor.capture())).thenReturn(1);
+        lenient().when(topic.publishAsync(any())).thenReturn(published);
+        redis = new ConcurrentMapCacheManager("locationsCache", "routesCache");
+        cacheManager = new NearCacheManager(redis, topic, Set.of("locationsCache"), 2, 60000);
+        listener = captor.getValue();
+    }
+
+    @Test
+    void get_ShouldServeLocalCopyUntilInvalidatedByAnotherInstance() {
+        Cache cache = cacheManager.getCache("locationsCache");
+        redis.getCache("locationsCache").put(1L, "IST");
+        assertEquals("IST", cache.get(1L, String.class));
+
+        redis.getCache("locationsCache").put(1L, "SAW");
+        assertEquals("IST", cache.get(1L, String.class), "The local copy should be served without reading Redis");
+
+        listener.onMessage("cache:invalidations", "other-node\tlocationsCache\t1");
+        assertEquals("SAW", cache.get(1L, String.class), "An invalidated entry should be read from Redis again");
+
+        redis.getCache("locationsCache").put(1L, "LHR");
+        listener.onMessage("cache:invalidations", "other-node\tlocationsCache");
+        assertEquals("LHR", cache.get(1L, String.class), "Clearing another instance should clear the local copy");
+    }
+
+    @Test
+    void putAndEvict_ShouldWriteThroughAndPublishInvalidations() {
+        Cache cache = cacheManager.getCache("locationsCache");
+
+        cache.put(1L, "IST");
+        assertEquals("IST", redis.getCache("locationsCache").get(1L, String.class));
+        verify(topic).publishAsync(endsWith("\tlocationsCache\t1"));
+
+        cache.evict(1L);
+        assertNull(redis.getCache("locationsCache").get(1L));
+        assertNull(cache.get(1L));
+
+        cache.clear();
+        verify(topic).publishAsync(endsWith("\tlocationsCache"));
+    }
+
+    @Test
+    void put_ShouldNotPublishWritesOfVersionedKeys() {
+        Cache cache = cacheManager.getCache("locationsCache");
+
+        cache.put("v3_1_2", "IST");
+        cache.putIfAbsent("v3_1_4", "SAW");
+        assertEquals("IST", cache.get("v3_1_2", String.class));
+        verify(topic, never()).publishAsync(any());
+
+        cache.put("vip_1", "LHR");
+        verify(topic).publishAsync(endsWith("\tlocationsCache\tvip_1"));
+
+        cache.evict("v3_1_2");
+        verify(topic).publishAsync(endsWith("\tlocationsCache\tv3_1_2"));
+    }
+
+    @Test
+    void getCache_ShouldBoundLocalEntriesAndSkipOtherCaches() {
+        NearCache cache = (NearCache) cacheManager.getCache("locationsCache");
+        for (long id = 1; id <= 5; id++) {
+            cache.put(id, "L" + id);
+        }
+        assertEquals(2, cache.localSize(), "No more than the bound of local entries should be kept");
+        assertEquals("L1", cache.get(1L, String.class), "Older entries should still be read from Redis");
+
+        assertSame(redis.getCache("routesCache"), cacheManager.getCache("routesCache"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tkproject.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadSizeCodecTest {
+
+    @Test
+    void encode_ShouldRecordTheSizeOfTheBytesItWrites() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DistributionSummary payloadSize = DistributionSummary.builder("cache.payload.size").register(meterRegistry);
+        Codec codec = new PayloadSizeCodec(CacheCodecs.create("smile+lz4", 256), payloadSize);
+
+        CachedRoutePage page = new CachedRoutePage(3, new long[][]{{10L}, {20L, 60L}}, null);
+        ByteBuf encoded = codec.getMapValueEncoder().encode(page);
+        try {
+            assertEquals(1, payloadSize.count(), "Each value should be measured once, as it is encoded");
+            assertEquals(encoded.readableBytes(), payloadSize.totalAmount());
+            CachedRoutePage decoded = (CachedRoutePage) codec.getMapValueDecoder().decode(encoded, new State());
+            assertArrayEquals(page.getRoutes(), decoded.getRoutes());
+        } finally {
+            encoded.release();
+        }
+        assertEquals(1, payloadSize.count(), "Decoding should not be measured");
+    }
+}
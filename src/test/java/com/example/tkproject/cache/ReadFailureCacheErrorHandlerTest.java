@@ -0,0 +1,58 @@
+package com.example.tkproject.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadFailureCacheErrorHandlerTest {
+
+    private final ReadFailureCacheErrorHandler handler = new ReadFailureCacheErrorHandler();
+
+    /** Fails every read, like an entry written with another codec. */
+    private static final class UndecodableCache extends ConcurrentMapCache {
+
+        UndecodableCache() {
+            super("locationsCache");
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            throw new IllegalStateException("Unexpected token in smile content");
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            throw new IllegalStateException("Unexpected token in smile content");
+        }
+    }
+
+    @Test
+    void get_ShouldTreatUnreadableEntriesAsMisses() {
+        Cache cache = new UndecodableCache();
+        cache.put("IST", "Istanbul");
+
+        assertNull(ReadFailureCacheErrorHandler.get(cache, "IST"));
+        assertDoesNotThrow(() -> handler.handleCacheGetError(new IllegalStateException("decode"), cache, "IST"));
+    }
+
+    @Test
+    void get_ShouldReturnReadableEntries() {
+        Cache cache = new ConcurrentMapCache("locationsCache");
+        cache.put("IST", "Istanbul");
+
+        assertEquals("Istanbul", ReadFailureCacheErrorHandler.get(cache, "IST").get());
+    }
+
+    @Test
+    void handleCachePutError_ShouldStillRethrow() {
+        Cache cache = new ConcurrentMapCache("locationsCache");
+        RuntimeException failure = new IllegalStateException("Redis is down");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> handler.handleCachePutError(failure, cache, "IST", "Istanbul")));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.tkproject.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThresholdLz4CodecTest {
+
+    private static Object roundTrip(Codec codec, Object value, int[] size) throws Exception {
+        ByteBuf encoded = codec.getMapValueEncoder().encode(value);
+        try {
+            size[0] = encoded.readableBytes();
+            return codec.getMapValueDecoder().decode(encoded, new State());
+        } finally {
+            encoded.release();
+        }
+    }
+
+    private static List<Map<String, String>> route(int legs) {
+        List<Map<String, String>> route = new ArrayList<>();
+        for (int i = 0; i < legs; i++) {
+            route.add(Map.of("origin", "Istanbul Airport", "destination", "London Heathrow Airport", "type", "FLIGHT"));
+        }
+        return route;
+    }
+
+    @Test
+    void create_ShouldRoundTripValuesAndCompressOnlyLargeOnes() throws Exception {
+        Codec smile = CacheCodecs.create("smile", 0);
+        Codec compressed = CacheCodecs.create("smile+lz4", 256);
+        int[] plainSize = new int[1];
+        int[] compressedSize = new int[1];
+
+        assertEquals(route(2), roundTrip(compressed, route(2), compressedSize));
+        assertEquals(route(2), roundTrip(smile, route(2), plainSize));
+        assertEquals(plainSize[0] + 1, compressedSize[0], "Small values should only carry the flag byte");
+
+        assertEquals(route(200), roundTrip(compressed, route(200), compressedSize));
+        assertEquals(route(200), roundTrip(smile, route(200), plainSize));
+        assertTrue(compressedSize[0] < plainSize[0], "Large values should be compressed");
+    }
+
+    @Test
+    void create_ShouldEncodeRepeatedValuesMoreCompactlyThanJson() throws Exception {
+        int[] jsonSize = new int[1];
+        int[] smileSize = new int[1];
+
+        roundTrip(CacheCodecs.create("json", 0), route(50), jsonSize);
+        roundTrip(CacheCodecs.create("smile", 0), route(50), smileSize);
+
+        assertTrue(smileSize[0] < jsonSize[0] / 2, "Smile should share repeated names and values");
+    }
+
+    @Test
+    void create_ShouldRoundTripCompactRoutes() throws Exception {
+        CachedRoutePage page = new CachedRoutePage(3, new long[][]{{10L}, {20L, 60L}}, "cursor");
+        CachedRouteDestinations destinations = new CachedRouteDestinations(3,
+                List.of(new CachedRouteDestinations.Destination(5L, null, new long[][]{{10L, 20L}})));
+
+        CachedRoutePage decodedPage = (CachedRoutePage) roundTrip(CacheCodecs.create("smile+lz4", 0), page, new int[1]);
+        CachedRouteDestinations decodedDestinations =
+                (CachedRouteDestinations) roundTrip(CacheCodecs.create("smile", 0), destinations, new int[1]);
+
+        assertArrayEquals(page.getRoutes(), decodedPage.getRoutes());
+        assertEquals(page.getNextCursor(), decodedPage.getNextCursor());
+        assertEquals(5L, decodedDestinations.getDestinations().getFirst().getLocationId());
+        assertArrayEquals(new long[][]{{10L, 20L}}, decodedDestinations.getDestinations().getFirst().getRoutes());
+    }
+
+    private static Object decode(Codec codec, ByteBuf encoded) throws Exception {
+        try {
+            return codec.getMapValueDecoder().decode(encoded, new State());
+        } finally {
+            encoded.release();
+        }
+    }
+
+    @Test
+    void decode_ShouldFailCleanly_OnValuesWrittenByAnotherCodec() throws Exception {
+        Codec compressed = CacheCodecs.create("smile+lz4", 256);
+
+        for (String other : List.of("json", "smile")) {
+            ByteBuf encoded = CacheCodecs.create(other, 0).getMapValueEncoder().encode(route(50));
+            assertThrows(IOException.class, () -> decode(compressed, encoded), other + " values should not decode");
+        }
+    }
+
+    @Test
+    void decode_ShouldFailCleanly_OnCorruptCompressedValues() throws Exception {
+        Codec compressed = CacheCodecs.create("smile+lz4", 0);
+        ByteBuf encoded = compressed.getMapValueEncoder().encode(route(50));
+        encoded.setInt(1, encoded.getInt(1) + 1);
+        assertThrows(IOException.class, () -> decode(compressed, encoded), "A wrong length should be detected");
+
+        ByteBuf garbage = Unpooled.buffer().writeByte(1).writeInt(1_000).writeBytes(new byte[]{(byte) 0xF0, 1, 2, 3, 4, 5, 6, 7});
+        assertThrows(IOException.class, () -> decode(compressed, garbage), "A corrupt block should be rejected");
+    }
+
+    @Test
+    void create_ShouldRejectUnknownCodecs() {
+        assertThrows(IllegalArgumentException.class, () -> CacheCodecs.create("kryo", 0));
+        assertThrows(IllegalArgumentException.class, () -> CacheCodecs.create("smile+zstd", 0));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.tkproject.config;
+
+import com.example.tkproject.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitedExecutorTest {
+
+    @Test
+    void execute_ShouldRejectTasksOverTheLimitWithoutBlocking() {
+        List<Runnable> submitted = new ArrayList<>();
+        ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor(submitted::add, 2, 3);
+        executor.execute(() -> { });
+        executor.execute(() -> { });
+
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class, () -> executor.execute(() -> { }));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(2, submitted.size(), "A rejected task should not reach the delegate");
+
+        submitted.get(0).run();
+        assertEquals(1, executor.getAvailablePermits(), "A finished task should release its permit");
+        executor.execute(() -> { });
+        assertEquals(3, submitted.size());
+    }
+
+    @Test
+    void execute_ShouldReleaseThePermit_WhenTheTaskOrTheDelegateFails() {
+        ConcurrencyLimitedExecutor failingTasks = new ConcurrencyLimitedExecutor(Runnable::run, 1, 1);
+        assertThrows(IllegalStateException.class, () -> failingTasks.execute(() -> {
+            throw new IllegalStateException("search failed");
+        }));
+        assertEquals(1, failingTasks.getAvailablePermits());
+
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("shut down");
+        };
+        ConcurrencyLimitedExecutor failingDelegate = new ConcurrencyLimitedExecutor(rejecting, 1, 1);
+        assertThrows(RejectedExecutionException.class, () -> failingDelegate.execute(() -> { }));
+        assertEquals(1, failingDelegate.getAvailablePermits());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.tkproject.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionModeEnvironmentPostProcessorTest {
+
+    private final ExecutionModeEnvironmentPostProcessor postProcessor = new ExecutionModeEnvironmentPostProcessor();
+
+    @Test
+    void postProcessEnvironment_ShouldEnableVirtualServletThreads_InVirtualMode() {
+        MockEnvironment environment = new MockEnvironment().withProperty("route.execution.mode", "virtual");
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertEquals("true", environment.getProperty("spring.threads.virtual.enabled"));
+    }
+
+    @Test
+    void postProcessEnvironment_ShouldKeepPlatformServletThreads_InPlatformMode() {
+        MockEnvironment environment = new MockEnvironment();
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertEquals("false", environment.getProperty("spring.threads.virtual.enabled"));
+    }
+
+    @Test
+    void postProcessEnvironment_ShouldNotOverrideAnExplicitSetting() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("route.execution.mode", "virtual")
+                .withProperty("spring.threads.virtual.enabled", "false");
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertEquals("false", environment.getProperty("spring.threads.virtual.enabled"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.tkproject.seed;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+import com.example.tkproject.service.graph.LayeredRouteEnumerator;
+import com.example.tkproject.service.graph.RouteGraphSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticNetworkGeneratorTest {
+
+    private static final SyntheticNetworkGenerator GENERATOR = new SyntheticNetworkGenerator(42L, 2000, 0.05, 0.1, 4, 20);
+
+    @Test
+    void generate_ShouldProduceAConsistentNetwork() {
+        SyntheticNetwork network = GENERATOR.generate();
+        List<Location> locations = network.getLocations();
+        int airports = network.getAirportCount();
+
+        assertEquals(2000, locations.size());
+        assertEquals(100, airports);
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < locations.size(); i++) {
+            Location location = locations.get(i);
+            assertEquals(i + 1, location.getId());
+            assertTrue(location.getLocationCode().startsWith(SyntheticNetworkGenerator.CODE_PREFIX));
+            assertTrue(location.getLocationCode().length() <= 10, "Location codes must fit the column");
+            assertTrue(codes.add(location.getLocationCode()), "Location codes must be unique");
+            assertNotNull(location.getLatitude());
+        }
+
+        List<Transportation> transportations = network.getTransportations();
+        assertFalse(transportations.isEmpty());
+        for (int i = 0; i < transportations.size(); i++) {
+            Transportation t = transportations.get(i);
+            assertEquals(i + 1, t.getId());
+            assertNotEquals(t.getOrigin(), t.getDestination());
+            assertFalse(t.getOperatingDays().isEmpty());
+            boolean betweenAirports = t.getOrigin().getId() <= airports && t.getDestination().getId() <= airports;
+            if (t.getType() == TransportationType.FLIGHT) {
+                assertTrue(betweenAirports, "Flights should connect airports");
+            } else {
+                assertEquals(t.getOrigin().getCity(), t.getDestination().getCity(), "Transfers should stay within a city");
+            }
+        }
+    }
+
+    @Test
+    void generate_ShouldBeReproducibleAndStreamLocationsFirst() {
+        SyntheticNetwork network = GENERATOR.generate();
+        AtomicInteger locations = new AtomicInteger();
+        AtomicInteger transportations = new AtomicInteger();
+        GENERATOR.generate(location -> {
+            assertEquals(0, transportations.get(), "Every location should come before the first transportation");
+            assertEquals(network.getLocations().get(locations.getAndIncrement()).getLocationCode(), location.getLocationCode());
+        }, transportation -> {
+            Transportation expected = network.getTransportations().get(transportations.getAndIncrement());
+            assertEquals(expected.getOrigin().getId(), transportation.getOrigin().getId());
+            assertEquals(expected.getDestination().getId(), transportation.getDestination().getId());
+            assertEquals(expected.getOperatingDays(), transportation.getOperatingDays());
+        });
+        assertEquals(network.getTransportations().size(), transportations.get());
+    }
+
+    @Test
+    void generate_ShouldConnectHubCitiesThroughTheirAirports() {
+        SyntheticNetwork network = GENERATOR.generate();
+        Set<String> hubCities = new HashSet<>();
+        for (int hub = 0; hub < 10; hub++) {
+            hubCities.add(network.getLocations().get(hub).getCity());
+        }
+        List<Location> hubCityLocations = network.getLocations().stream()
+                .skip(network.getAirportCount())
+                .filter(location -> hubCities.contains(location.getCity()))
+                .limit(40)
+                .toList();
+        RouteGraphSnapshot graph = RouteGraphSnapshot.build(1, network.getTransportations(1));
+
+        int pairs = 0;
+        int withRoutes = 0;
+        for (int i = 0; i + 1 < hubCityLocations.size(); i += 2) {
+            int origin = graph.indexOf(hubCityLocations.get(i).getId());
+            int destination = graph.indexOf(hubCityLocations.get(i + 1).getId());
+            if (origin < 0 || destination < 0
+                    || hubCityLocations.get(i).getCity().equals(hubCityLocations.get(i + 1).getCity())) {
+                continue;
+            }
+            pairs++;
+            AtomicInteger routes = new AtomicInteger();
+            LayeredRouteEnumerator.enumerate(graph, origin, destination, (legs, length, distance) -> routes.incrementAndGet());
+            if (routes.get() > 0) {
+                withRoutes++;
+            }
+        }
+        assertTrue(pairs > 0);
+        assertTrue(withRoutes * 2 >= pairs, "Most hub city pairs should have a route, found " + withRoutes + " of " + pairs);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.tkproject.service;
+
+import com.example.tkproject.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdmissionLimiter limiter(int initialLimit) {
+        return new AdmissionLimiter(meterRegistry, true, initialLimit, 2, 10, 100, 0.5, 3);
+    }
+
+    @Test
+    void acquire_ShouldRejectSearchesOverTheLimit() {
+        AdmissionLimiter limiter = limiter(2);
+        AdmissionLimiter.Permit first = limiter.acquire();
+        limiter.acquire();
+
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class, limiter::acquire);
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("route.admission.rejected").counter().count());
+
+        first.release(true);
+        assertNotNull(limiter.acquire(), "A released permit should admit the next search");
+    }
+
+    @Test
+    void onComplete_ShouldIncreaseAdditivelyAndDecreaseMultiplicatively() {
+        AdmissionLimiter limiter = limiter(4);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        limiter.onComplete(TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertEquals(5, limiter.getLimit(), "A fast search at high utilization should raise the limit by one");
+
+        limiter.onComplete(TimeUnit.MILLISECONDS.toNanos(500), true);
+        assertEquals(2, limiter.getLimit(), "A slow search should halve the limit");
+        assertEquals(2.0, meterRegistry.get("route.admission.limit").gauge().value());
+
+        limiter.onComplete(TimeUnit.MILLISECONDS.toNanos(500), true);
+        assertEquals(2, limiter.getLimit(), "The limit should not drop below the minimum");
+        assertEquals(1, limiter.getInFlight());
+    }
+}
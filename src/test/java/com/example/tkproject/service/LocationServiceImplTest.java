@@ -4,12 +4,14 @@ import com.example.tkproject.dto.LocationDTO;
 import com.example.tkproject.exception.ResourceNotFoundException;
 import com.example.tkproject.model.Location;
 import com.example.tkproject.repository.LocationRepository;
+import com.example.tkproject.service.graph.NetworkChangedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -29,6 +31,9 @@ class LocationServiceImplTest {
     @Mock
     private LocationRepository locationRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private LocationServiceImpl locationService;
 
@@ -156,6 +161,7 @@ class LocationServiceImplTest {
         assertDoesNotThrow(() -> locationService.delete(1L));
 
         verify(locationRepository, times(1)).deleteById(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(NetworkChangedEvent.class));
     }
 
     @Test
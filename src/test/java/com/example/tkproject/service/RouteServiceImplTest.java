@@ -1,17 +1,39 @@
 package com.example.tkproject.service;
 
+import com.example.tkproject.cache.CachedRoutePage;
+import com.example.tkproject.cache.ClusterSingleFlight;
+import com.example.tkproject.dto.RouteBatchRequestDTO;
+import com.example.tkproject.dto.RouteBatchResultDTO;
+import com.example.tkproject.dto.RouteCalendarDTO;
+import com.example.tkproject.dto.RouteDestinationDTO;
+import com.example.tkproject.dto.RoutePageDTO;
+import com.example.tkproject.dto.RouteQuery;
 import com.example.tkproject.dto.TransportationResponseDTO;
 import com.example.tkproject.exception.RouteServiceException;
 import com.example.tkproject.model.Location;
 import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.RouteSortOrder;
 import com.example.tkproject.model.enums.TransportationType;
 import com.example.tkproject.repository.LocationRepository;
 import com.example.tkproject.repository.TransportationRepository;
+import com.example.tkproject.service.graph.NetworkVersion;
+import com.example.tkproject.service.graph.RouteGraphProvider;
+import com.example.tkproject.service.graph.RouteEngine;
+import com.example.tkproject.service.graph.RouteIndex;
+import com.example.tkproject.service.graph.RouteRules;
+import com.example.tkproject.service.graph.RouteSearchMetrics;
+import com.example.tkproject.util.CursorUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,9 +43,16 @@ import org.springframework.transaction.TransactionStatus;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +64,8 @@ class RouteServiceImplTest {
     @Mock
     private TransportationRepository transportationRepository;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private static class DummyTransactionManager implements PlatformTransactionManager {
         @Override
         public TransactionStatus getTransaction(TransactionDefinition definition) {
@@ -55,6 +86,8 @@ class RouteServiceImplTest {
     }
 
     private PlatformTransactionManager transactionManager;
+    private NetworkVersion networkVersion;
+    private ConcurrentMapCacheManager cacheManager;
     private RouteServiceImpl routeService;
 
     private Location origin;
@@ -204,7 +237,15 @@ class RouteServiceImplTest {
 
         transactionManager = new DummyTransactionManager();
 
-        routeService = new RouteServiceImpl(locationRepository, transportationRepository, transactionManager);
+        RouteSearchMetrics metrics = new RouteSearchMetrics(meterRegistry);
+        networkVersion = new NetworkVersion(null, false, 0);
+        RouteGraphProvider routeGraphProvider = new RouteGraphProvider(transportationRepository, transactionManager, metrics,
+                networkVersion, 300000);
+        RouteEngine routeEngine = new RouteEngine(RouteRules.DEFAULT);
+        RouteIndex routeIndex = new RouteIndex(routeGraphProvider, locationRepository, routeEngine, networkVersion, false, 0, 300000);
+        cacheManager = new ConcurrentMapCacheManager();
+        routeService = new RouteServiceImpl(locationRepository, routeGraphProvider, routeIndex, routeEngine, cacheManager,
+                new ClusterSingleFlight(null, false, 0, 0), metrics, networkVersion, new TransportationDtoTable(networkVersion, 100000));
     }
 
     @Test
@@ -224,6 +265,382 @@ class RouteServiceImplTest {
         verify(transportationRepository, atLeastOnce()).findByOperatingDaysContaining(3);
     }
 
+    @Test
+    void findRoutes_ShouldReturnNonFlightFlightNonFlightRoute() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(busOriginToStopover1, flightStopover1ToStopover2, subwayStopover2ToDestination));
+
+        List<List<TransportationResponseDTO>> result = routeService.findRoutes(1L, 3L, testDate).join();
+        assertEquals(1, result.size(), "Expected one valid route");
+        List<TransportationResponseDTO> route = result.getFirst();
+        assertEquals(List.of(20L, 30L, 40L), route.stream().map(TransportationResponseDTO::getId).toList());
+    }
+
+    @Test
+    void findRoutes_ShouldRecordPhaseTimersAndSearchCounters() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination));
+
+        routeService.findRoutesSync(1L, 3L, testDate);
+
+        for (String phase : List.of(RouteSearchMetrics.LOCATIONS, RouteSearchMetrics.GRAPH, RouteSearchMetrics.SEARCH,
+                RouteSearchMetrics.SORT, RouteSearchMetrics.MAPPING, RouteSearchMetrics.GRAPH_QUERY,
+                RouteSearchMetrics.HIBERNATE_INITIALIZATION, RouteSearchMetrics.GRAPH_BUILD)) {
+            assertEquals(1, meterRegistry.get(RouteSearchMetrics.PHASE_TIMER).tag("phase", phase).timer().count(),
+                    "Phase " + phase + " should be timed once");
+        }
+        assertEquals(2.0, meterRegistry.get("route.search.routes.found").summary().totalAmount());
+    }
+
+    @Test
+    void findRoutes_ShouldReturnAllValidShapes() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination,
+                        flightOriginToStopover1, subwayStopover1ToDestination_NF));
+
+        List<List<TransportationResponseDTO>> result = routeService.findRoutes(1L, 3L, testDate).join();
+        Set<List<Long>> routes = new HashSet<>();
+        result.forEach(route -> routes.add(route.stream().map(TransportationResponseDTO::getId).toList()));
+        assertEquals(Set.of(List.of(10L), List.of(20L, 60L), List.of(50L, 80L)), routes,
+                "Expected flight, non-flight -> flight and flight -> non-flight routes");
+    }
+
+    @Test
+    void findRoutes_ShouldPageThroughRoutesWithCursor() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination,
+                        flightOriginToStopover1, subwayStopover1ToDestination_NF));
+
+        RoutePageDTO first = routeService.findRoutes(new RouteQuery(1L, 3L, testDate, RouteSortOrder.DISTANCE, 2, 0)).join();
+        assertEquals(List.of(List.of(10L), List.of(20L, 60L)), ids(first.getRoutes()));
+        assertNotNull(first.getNextCursor(), "Expected a cursor for the remaining route");
+
+        RoutePageDTO second = routeService.findRoutes(new RouteQuery(1L, 3L, testDate, RouteSortOrder.DISTANCE, 2,
+                CursorUtil.decodeOffset(first.getNextCursor()))).join();
+        assertEquals(List.of(List.of(50L, 80L)), ids(second.getRoutes()));
+        assertNull(second.getNextCursor(), "Expected no cursor after the last page");
+    }
+
+    @Test
+    void findRoutesBatch_ShouldExpandEachOriginOncePerWeekday() {
+        when(locationRepository.findAllById(anyCollection())).thenReturn(List.of(origin, destination, stopover1));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination,
+                        flightOriginToStopover1, subwayStopover1ToDestination_NF));
+
+        RouteBatchRequestDTO request = new RouteBatchRequestDTO(List.of(
+                new RouteBatchRequestDTO.Query(1L, 3L, testDate),
+                new RouteBatchRequestDTO.Query(1L, 2L, testDate),
+                new RouteBatchRequestDTO.Query(1L, 3L, testDate.plusWeeks(1))), RouteSortOrder.DISTANCE, null);
+        List<RouteBatchResultDTO> results = routeService.findRoutesBatch(request).join();
+
+        assertEquals(3, results.size(), "Expected one result per query");
+        assertEquals(List.of(List.of(10L), List.of(20L, 60L), List.of(50L, 80L)), ids(results.get(0).getRoutes()));
+        assertEquals(List.of(List.of(50L)), ids(results.get(1).getRoutes()));
+        assertEquals(testDate.plusWeeks(1), results.get(2).getTripDate());
+        assertEquals(ids(results.get(0).getRoutes()), ids(results.get(2).getRoutes()));
+        verify(locationRepository, times(1)).findAllById(anyCollection());
+        verify(locationRepository, never()).findById(anyLong());
+        verify(transportationRepository, times(1)).findByOperatingDaysContaining(3);
+    }
+
+    @Test
+    void findRoutesBatch_ShouldThrowException_WhenLocationNotFound() {
+        when(locationRepository.findAllById(anyCollection())).thenReturn(List.of(origin));
+
+        RouteBatchRequestDTO request = new RouteBatchRequestDTO(
+                List.of(new RouteBatchRequestDTO.Query(1L, 3L, testDate)), RouteSortOrder.DISTANCE, null);
+        RouteServiceException ex = assertThrows(RouteServiceException.class, () -> routeService.findRoutesBatch(request));
+        assertEquals("Location not found with ID: 3", ex.getMessage());
+    }
+
+    @Test
+    void findRoutesFrom_ShouldTimeTheSearchWithoutRecordingSearchCounters() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination));
+
+        routeService.findRoutesFromSync(1L, testDate, RouteSortOrder.DISTANCE, false);
+
+        assertEquals(1, meterRegistry.get(RouteSearchMetrics.PHASE_TIMER)
+                .tag("phase", RouteSearchMetrics.SEARCH).timer().count());
+        for (String counter : List.of("route.search.states.expanded", "route.search.states.pruned",
+                "route.search.routes.found")) {
+            assertEquals(0, meterRegistry.get(counter).summary().count(), counter + " should not be recorded");
+        }
+    }
+
+    @Test
+    void findRoutesFrom_ShouldGroupRoutesByDestination() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination,
+                        flightOriginToStopover1, subwayStopover1ToDestination_NF));
+
+        List<RouteDestinationDTO> all = routeService.findRoutesFrom(1L, testDate, RouteSortOrder.DISTANCE, false).join();
+        assertEquals(List.of(2L, 3L), all.stream().map(result -> result.getDestination().getId()).toList());
+        assertEquals(List.of(List.of(50L)), ids(all.get(0).getRoutes()));
+        assertEquals(List.of(List.of(10L), List.of(20L, 60L), List.of(50L, 80L)), ids(all.get(1).getRoutes()));
+        assertNull(all.get(1).getDistance(), "Locations without coordinates should have no distance");
+
+        List<RouteDestinationDTO> best = routeService.findRoutesFrom(1L, testDate, RouteSortOrder.DISTANCE, true).join();
+        assertEquals(List.of(List.of(10L)), ids(best.get(1).getRoutes()));
+        verify(transportationRepository, times(1)).findByOperatingDaysContaining(3);
+    }
+
+    @Test
+    void findRoutesRange_ShouldSearchEachWeekdayOnce() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(anyInt())).thenReturn(List.of());
+        when(transportationRepository.findByOperatingDaysContaining(3)).thenReturn(List.of(directFlight));
+
+        List<RouteCalendarDTO> calendar = routeService.findRoutesRange(1L, 3L, testDate, testDate.plusDays(29),
+                RouteSortOrder.DISTANCE, null).join();
+
+        assertEquals(30, calendar.size(), "Expected one entry per date");
+        for (RouteCalendarDTO entry : calendar) {
+            List<List<Long>> expected = entry.getTripDate().getDayOfWeek() == testDate.getDayOfWeek()
+                    ? List.of(List.of(10L)) : List.of();
+            assertEquals(expected, ids(entry.getRoutes()), "Unexpected routes on " + entry.getTripDate());
+        }
+        verify(locationRepository, times(1)).findById(1L);
+        verify(transportationRepository, times(7)).findByOperatingDaysContaining(anyInt());
+    }
+
+    @Test
+    void streamRoutes_ShouldReturnRoutesInOrder() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination,
+                        flightOriginToStopover1, subwayStopover1ToDestination_NF));
+
+        List<List<TransportationResponseDTO>> routes = routeService.streamRoutes(
+                new RouteQuery(1L, 3L, testDate, RouteSortOrder.DISTANCE, 2, 1)).toList();
+        assertEquals(List.of(List.of(20L, 60L), List.of(50L, 80L)), ids(routes));
+    }
+
+    @Test
+    void findRoutes_ShouldServeRepeatedQueriesFromCache() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3)).thenReturn(List.of(directFlight));
+
+        List<List<TransportationResponseDTO>> first = routeService.findRoutes(1L, 3L, testDate).join();
+        List<List<TransportationResponseDTO>> second = routeService.findRoutes(1L, 3L, testDate.plusWeeks(1)).join();
+
+        assertEquals(ids(first), ids(second));
+        verify(locationRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findRoutes_ShouldAnswerIndexedQueriesWithoutTheSharedCache() throws Exception {
+        when(locationRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(transportationRepository.findByOperatingDaysContaining(anyInt())).thenReturn(List.of(directFlight));
+        RouteSearchMetrics metrics = new RouteSearchMetrics(meterRegistry);
+        RouteGraphProvider routeGraphProvider = new RouteGraphProvider(transportationRepository, transactionManager, metrics,
+                networkVersion, 300000);
+        RouteEngine routeEngine = new RouteEngine(RouteRules.DEFAULT);
+        RouteIndex routeIndex = new RouteIndex(routeGraphProvider, locationRepository, routeEngine, networkVersion, true, 1, 300000);
+        try {
+            routeIndex.requestRebuild();
+            long deadline = System.currentTimeMillis() + 10000;
+            while (routeIndex.lookup(1L, 3L, 3) == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            RouteServiceImpl indexedService = new RouteServiceImpl(locationRepository, routeGraphProvider, routeIndex, routeEngine,
+                    cacheManager, new ClusterSingleFlight(null, false, 0, 0), metrics, networkVersion,
+                    new TransportationDtoTable(networkVersion, 100000));
+
+            RoutePageDTO page = indexedService.findRoutesSync(new RouteQuery(1L, 3L, testDate));
+
+            assertEquals(List.of(List.of(10L)), ids(page.getRoutes()));
+            assertTrue(cacheManager.getCacheNames().isEmpty(), "Indexed answers should not be read from or written to the cache");
+            verify(locationRepository, never()).findById(anyLong());
+        } finally {
+            routeIndex.shutdown();
+        }
+    }
+
+    @Test
+    void findRoutes_ShouldLookUpTheRouteIndexOnce_WhenItCannotAnswer() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3)).thenReturn(List.of(directFlight));
+        RouteSearchMetrics metrics = new RouteSearchMetrics(meterRegistry);
+        RouteGraphProvider routeGraphProvider = new RouteGraphProvider(transportationRepository, transactionManager, metrics,
+                networkVersion, 300000);
+        RouteEngine routeEngine = new RouteEngine(RouteRules.DEFAULT);
+        RouteIndex unbuiltIndex = new RouteIndex(routeGraphProvider, locationRepository, routeEngine, networkVersion, true, 1, 300000);
+        try {
+            RouteServiceImpl indexedService = new RouteServiceImpl(locationRepository, routeGraphProvider, unbuiltIndex, routeEngine,
+                    cacheManager, new ClusterSingleFlight(null, false, 0, 0), metrics, networkVersion,
+                    new TransportationDtoTable(networkVersion, 100000));
+
+            RoutePageDTO page = indexedService.findRoutesSync(new RouteQuery(1L, 3L, testDate));
+
+            assertEquals(List.of(List.of(10L)), ids(page.getRoutes()));
+            assertEquals(1, meterRegistry.get(RouteSearchMetrics.PHASE_TIMER).tag("phase", RouteSearchMetrics.INDEX).timer().count(),
+                    "An index miss should not be looked up again by the search");
+        } finally {
+            unbuiltIndex.shutdown();
+        }
+    }
+
+    @Test
+    void findRoutes_ShouldCacheTransportationIdsAndShareDtos() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination));
+
+        RoutePageDTO first = routeService.findRoutesSync(new RouteQuery(1L, 3L, testDate));
+        RoutePageDTO second = routeService.findRoutesSync(new RouteQuery(1L, 3L, testDate));
+
+        Object cached = cacheManager.getCache("routesCache").get("v0_" + new RouteQuery(1L, 3L, testDate).cacheKey()).get();
+        CachedRoutePage page = assertInstanceOf(CachedRoutePage.class, cached);
+        assertArrayEquals(new long[][]{{10L}, {20L, 60L}}, page.getRoutes());
+        assertEquals(ids(first.getRoutes()), ids(second.getRoutes()));
+        assertSame(first.getRoutes().get(1).get(0), second.getRoutes().get(1).get(0),
+                "Cached routes should be hydrated from the shared transportation DTOs");
+    }
+
+    @Test
+    void findRoutes_ShouldReplaceCachedRoutesThatNoLongerMatchTheGraph() throws Exception {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight, busOriginToStopover1, flightStopover1ToDestination));
+        ObjectProvider<RedissonClient> redissonClientProvider = mock();
+        RedissonClient redissonClient = mock();
+        RLock lock = mock();
+        when(redissonClientProvider.getObject()).thenReturn(redissonClient);
+        when(redissonClient.getTopic(anyString())).thenReturn(mock(RTopic.class));
+        when(redissonClient.getLock(anyString())).thenReturn(lock);
+        when(lock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+
+        RouteSearchMetrics metrics = new RouteSearchMetrics(meterRegistry);
+        RouteGraphProvider routeGraphProvider = new RouteGraphProvider(transportationRepository, transactionManager, metrics,
+                networkVersion, 300000);
+        RouteEngine routeEngine = new RouteEngine(RouteRules.DEFAULT);
+        RouteServiceImpl clusteredService = new RouteServiceImpl(locationRepository, routeGraphProvider,
+                new RouteIndex(routeGraphProvider, locationRepository, routeEngine, networkVersion, false, 0, 300000),
+                routeEngine, cacheManager, new ClusterSingleFlight(redissonClientProvider, true, 10000, 50), metrics,
+                networkVersion, new TransportationDtoTable(networkVersion, 100000));
+        RouteQuery query = new RouteQuery(1L, 3L, testDate);
+        String key = "v0_" + query.cacheKey();
+        cacheManager.getCache("routesCache").put(key, new CachedRoutePage(3, new long[][]{{999L}}, null));
+
+        RoutePageDTO page = clusteredService.findRoutesSync(query);
+
+        assertEquals(List.of(List.of(10L), List.of(20L, 60L)), ids(page.getRoutes()));
+        CachedRoutePage cached = assertInstanceOf(CachedRoutePage.class, cacheManager.getCache("routesCache").get(key).get());
+        assertArrayEquals(new long[][]{{10L}, {20L, 60L}}, cached.getRoutes(), "The stale entry should be replaced");
+    }
+
+    @Test
+    void findRoutes_ShouldSearchAgainAfterNetworkVersionChanges() {
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3))
+                .thenReturn(List.of(directFlight))
+                .thenReturn(List.of(busOriginToStopover1, flightStopover1ToDestination));
+
+        List<List<TransportationResponseDTO>> before = routeService.findRoutes(1L, 3L, testDate).join();
+        networkVersion.bump();
+        List<List<TransportationResponseDTO>> after = routeService.findRoutes(1L, 3L, testDate).join();
+
+        assertEquals(List.of(List.of(directFlight.getId())), ids(before));
+        assertEquals(List.of(List.of(busOriginToStopover1.getId(), flightStopover1ToDestination.getId())), ids(after),
+                "Routes and graphs of an older network version should not be served");
+    }
+
+    @Test
+    void findRoutes_ShouldCoalesceConcurrentIdenticalQueries() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(locationRepository.findById(1L)).thenAnswer(invocation -> {
+            searching.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Optional.of(origin);
+        });
+        when(locationRepository.findById(3L)).thenReturn(Optional.of(destination));
+        when(transportationRepository.findByOperatingDaysContaining(3)).thenReturn(List.of(directFlight));
+
+        SecurityContext context = SecurityContextHolder.getContext();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<List<TransportationResponseDTO>>> leader = executor.submit(() -> {
+                SecurityContextHolder.setContext(context);
+                return routeService.findRoutesSync(1L, 3L, testDate);
+            });
+            assertTrue(searching.await(5, TimeUnit.SECONDS));
+            Future<List<List<TransportationResponseDTO>>> follower = executor.submit(() -> {
+                SecurityContextHolder.setContext(context);
+                return routeService.findRoutesSync(1L, 3L, testDate);
+            });
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(List.of(List.of(10L)), ids(leader.get(5, TimeUnit.SECONDS)));
+            assertEquals(List.of(List.of(10L)), ids(follower.get(5, TimeUnit.SECONDS)));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(locationRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findRoutes_ShouldReleaseFollowers_WhenTheLeaderFailsWithAnError() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(locationRepository.findById(1L)).thenAnswer(invocation -> {
+            searching.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            throw new StackOverflowError("route engine");
+        });
+
+        SecurityContext context = SecurityContextHolder.getContext();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<List<TransportationResponseDTO>>> leader = executor.submit(() -> {
+                SecurityContextHolder.setContext(context);
+                return routeService.findRoutesSync(1L, 3L, testDate);
+            });
+            assertTrue(searching.await(5, TimeUnit.SECONDS));
+            Future<List<List<TransportationResponseDTO>>> follower = executor.submit(() -> {
+                SecurityContextHolder.setContext(context);
+                return routeService.findRoutesSync(1L, 3L, testDate);
+            });
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, leaderFailure.getCause());
+            ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS),
+                    "The follower should fail instead of waiting forever");
+            RouteServiceException cause = assertInstanceOf(RouteServiceException.class, followerFailure.getCause());
+            assertInstanceOf(StackOverflowError.class, cause.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(locationRepository, times(1)).findById(1L);
+    }
+
+    private static List<List<Long>> ids(List<List<TransportationResponseDTO>> routes) {
+        return routes.stream().map(route -> route.stream().map(TransportationResponseDTO::getId).toList()).toList();
+    }
+
     @Test
     void findRoutes_ShouldReturnEmptyList_ForInvalidRoute_FlightFlight() {
         when(locationRepository.findById(1L)).thenReturn(Optional.of(origin));
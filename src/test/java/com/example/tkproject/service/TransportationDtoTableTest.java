@@ -0,0 +1,80 @@
+package com.example.tkproject.service;
+
+import com.example.tkproject.dto.TransportationResponseDTO;
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+import com.example.tkproject.service.graph.NetworkVersion;
+import com.example.tkproject.service.graph.RouteGraphSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportationDtoTableTest {
+
+    private NetworkVersion networkVersion;
+    private RouteGraphSnapshot graph;
+
+    @BeforeEach
+    void setUp() {
+        networkVersion = new NetworkVersion(null, false, 0);
+        List<Location> locations = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            Location location = new Location();
+            location.setId(id);
+            location.setName("Location " + id);
+            locations.add(location);
+        }
+        List<Transportation> transportations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Transportation transportation = new Transportation();
+            transportation.setId(10L * (i + 1));
+            transportation.setType(TransportationType.FLIGHT);
+            transportation.setOperatingDays(Set.of(3));
+            transportation.setOrigin(locations.get(i));
+            transportation.setDestination(locations.get(i + 1));
+            transportations.add(transportation);
+        }
+        graph = RouteGraphSnapshot.build(3, transportations);
+    }
+
+    @Test
+    void route_ShouldShareDtosAndStayWithinMaxEntries() {
+        TransportationDtoTable.Snapshot dtos = new TransportationDtoTable(networkVersion, 2).current();
+
+        TransportationResponseDTO first = dtos.route(graph, new long[]{10L}).getFirst();
+        assertSame(first, dtos.route(graph, new long[]{10L}).getFirst(), "The DTO should be shared");
+        List<TransportationResponseDTO> route = dtos.route(graph, new long[]{10L, 20L, 30L});
+
+        assertEquals(List.of(10L, 20L, 30L), route.stream().map(TransportationResponseDTO::getId).toList());
+        assertTrue(dtos.size() <= 2, "The table should not grow past max-entries");
+    }
+
+    @Test
+    void route_ShouldReturnNull_WhenATransportationIsNotInTheGraph() {
+        TransportationDtoTable.Snapshot dtos = new TransportationDtoTable(networkVersion, 100).current();
+
+        assertNull(dtos.route(graph, new long[]{10L, 999L}));
+    }
+
+    @Test
+    void current_ShouldStartANewTable_WhenTheNetworkVersionChanges() {
+        TransportationDtoTable table = new TransportationDtoTable(networkVersion, 100);
+        TransportationDtoTable.Snapshot before = table.current();
+        TransportationResponseDTO dto = before.route(graph, new long[]{10L}).getFirst();
+        assertSame(before, table.current());
+
+        networkVersion.bump();
+        TransportationDtoTable.Snapshot after = table.current();
+
+        assertNotSame(before, after);
+        assertNotSame(dto, after.route(graph, new long[]{10L}).getFirst());
+        assertSame(dto, before.route(graph, new long[]{10L}).getFirst(),
+                "A request holding the old table should keep reading it consistently");
+    }
+}
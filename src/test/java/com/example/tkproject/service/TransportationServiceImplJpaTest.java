@@ -0,0 +1,71 @@
+package com.example.tkproject.service;
+
+import com.example.tkproject.dto.TransportationResponseDTO;
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+import com.example.tkproject.repository.LocationRepository;
+import com.example.tkproject.repository.TransportationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link TransportationServiceImpl#findAll()} against a real JPA slice, outside any transaction,
+ * the way the startup warm-up calls it from its own thread.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(TransportationServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransportationServiceImplJpaTest {
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private TransportationRepository transportationRepository;
+
+    @Autowired
+    private TransportationService transportationService;
+
+    private Location location(String code, String name) {
+        Location location = new Location();
+        location.setLocationCode(code);
+        location.setName(name);
+        location.setCountry("Turkey");
+        location.setCity("Istanbul");
+        return locationRepository.save(location);
+    }
+
+    @Test
+    void findAll_ShouldLoadOperatingDaysWithoutAnOpenSession() throws Exception {
+        Location airport = location("IST", "Istanbul Airport");
+        Location taksim = location("TKS", "Taksim Square");
+        transportationRepository.save(new Transportation(taksim, airport, TransportationType.BUS, Set.of(1, 3, 5)));
+        transportationRepository.save(new Transportation(airport, taksim, TransportationType.SUBWAY, Set.of(2)));
+
+        try {
+            List<TransportationResponseDTO> result = CompletableFuture.supplyAsync(transportationService::findAll).get();
+
+            assertEquals(2, result.size(), "Fetching the operating days should not duplicate transportations");
+            assertEquals(Set.of(Set.of(1, 3, 5), Set.of(2)),
+                    Set.copyOf(result.stream().map(TransportationResponseDTO::getOperatingDays).toList()));
+        } finally {
+            transportationRepository.deleteAll();
+            locationRepository.deleteAll();
+        }
+    }
+}
@@ -9,12 +9,14 @@ import com.example.tkproject.model.Transportation;
 import com.example.tkproject.model.enums.TransportationType;
 import com.example.tkproject.repository.TransportationRepository;
 import com.example.tkproject.repository.LocationRepository;
+import com.example.tkproject.service.graph.NetworkChangedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -35,6 +37,9 @@ class TransportationServiceImplTest {
     @Mock
     private LocationRepository locationRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TransportationServiceImpl transportationService;
 
@@ -75,7 +80,7 @@ class TransportationServiceImplTest {
 
     @Test
     void findAll_ShouldReturnListOfTransportations() {
-        when(transportationRepository.findAll()).thenReturn(List.of(transportation));
+        when(transportationRepository.findAllWithOperatingDays()).thenReturn(List.of(transportation));
 
         List<TransportationResponseDTO> result = transportationService.findAll();
 
@@ -83,7 +88,7 @@ class TransportationServiceImplTest {
         assertEquals(1, result.size());
         assertEquals("Istanbul Airport", result.getFirst().getOrigin().getName());
 
-        verify(transportationRepository, times(1)).findAll();
+        verify(transportationRepository, times(1)).findAllWithOperatingDays();
     }
 
     @Test
@@ -162,6 +167,7 @@ class TransportationServiceImplTest {
         transportationService.delete(10L);
 
         verify(transportationRepository, times(1)).deleteById(10L);
+        verify(eventPublisher, times(1)).publishEvent(any(NetworkChangedEvent.class));
     }
 
     @Test
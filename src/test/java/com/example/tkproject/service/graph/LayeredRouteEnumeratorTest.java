@@ -0,0 +1,112 @@
+package com.example.tkproject.service.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayeredRouteEnumeratorTest {
+
+    private static boolean isValid(RouteGraphSnapshot graph, int[] legs, int origin, int destination) {
+        int flights = 0;
+        int flightAt = -1;
+        int node = origin;
+        for (int i = 0; i < legs.length; i++) {
+            if (graph.origin(legs[i]) != node || (i > 0 && node == destination)) {
+                return false;
+            }
+            if (graph.isFlight(legs[i])) {
+                flights++;
+                flightAt = i;
+            }
+            node = graph.target(legs[i]);
+        }
+        if (node != destination || flights != 1) {
+            return false;
+        }
+        return legs.length < 3 || flightAt == 1;
+    }
+
+    private static void bruteForce(RouteGraphSnapshot graph, int node, int origin, int destination,
+                                   List<Integer> prefix, Set<List<Integer>> routes) {
+        if (!prefix.isEmpty() && node == destination) {
+            if (isValid(graph, prefix.stream().mapToInt(Integer::intValue).toArray(), origin, destination)) {
+                routes.add(List.copyOf(prefix));
+            }
+            return;
+        }
+        if (prefix.size() == 3) {
+            return;
+        }
+        for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+            prefix.add(e);
+            bruteForce(graph, graph.target(e), origin, destination, prefix, routes);
+            prefix.removeLast();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Search {
+        void run(RouteGraphSnapshot graph, int origin, int destination, LayeredRouteEnumerator.RouteVisitor visitor);
+    }
+
+    private static void assertFindsExactlyTheValidRoutes(RouteGraphSnapshot graph, Search search) {
+        for (int origin = 0; origin < graph.nodeCount(); origin++) {
+            for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                if (origin == destination) {
+                    continue;
+                }
+                int o = origin;
+                int d = destination;
+                Set<List<Integer>> seen = new HashSet<>();
+                search.run(graph, o, d, (legs, length, distance) -> {
+                    int[] route = Arrays.copyOf(legs, length);
+                    assertTrue(isValid(graph, route, o, d), "Route should satisfy the transfer-flight-transfer rule");
+                    assertTrue(seen.add(Arrays.stream(route).boxed().toList()), "Route should be unique");
+                    assertEquals(graph.routeDistance(route), distance, 1e-9, "Route should carry its distance");
+                });
+                Set<List<Integer>> expected = new HashSet<>();
+                bruteForce(graph, o, o, d, new ArrayList<>(), expected);
+                assertEquals(expected, seen, "Every valid path of up to three legs should be found");
+            }
+        }
+    }
+
+    @Test
+    void enumerate_ShouldReturnExactlyTheValidRoutes() {
+        assertFindsExactlyTheValidRoutes(TestNetworks.random(42L, 12, 90), LayeredRouteEnumerator::enumerate);
+    }
+
+    @Test
+    void enumerateForwardAndBackward_ShouldReturnExactlyTheValidRoutes() {
+        RouteGraphSnapshot graph = TestNetworks.random(21L, 14, 160);
+        assertFindsExactlyTheValidRoutes(graph, (g, o, d, visitor) ->
+                LayeredRouteEnumerator.enumerateForward(g, o, d, LayeredRouteEnumerator.RouteBound.NONE, visitor));
+        assertFindsExactlyTheValidRoutes(graph, (g, o, d, visitor) ->
+                LayeredRouteEnumerator.enumerateBackward(g, o, d, LayeredRouteEnumerator.RouteBound.NONE, visitor));
+    }
+
+    @Test
+    void enumerateFrom_ShouldMatchPairwiseEnumeration() {
+        RouteGraphSnapshot graph = TestNetworks.random(7L, 15, 120);
+        for (int origin = 0; origin < graph.nodeCount(); origin++) {
+            Set<List<Integer>> fromOrigin = new HashSet<>();
+            LayeredRouteEnumerator.enumerateFrom(graph, origin, (legs, length, distance) ->
+                    fromOrigin.add(Arrays.stream(legs, 0, length).boxed().toList()));
+
+            Set<List<Integer>> pairwise = new HashSet<>();
+            for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                if (destination != origin) {
+                    LayeredRouteEnumerator.enumerate(graph, origin, destination, (legs, length, distance) ->
+                            pairwise.add(Arrays.stream(legs, 0, length).boxed().toList()));
+                }
+            }
+            assertEquals(pairwise, fromOrigin, "One-to-all enumeration should find the same routes");
+        }
+    }
+}
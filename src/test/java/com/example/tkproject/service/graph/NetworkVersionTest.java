@@ -0,0 +1,80 @@
+package com.example.tkproject.service.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NetworkVersionTest {
+
+    @Mock
+    private ObjectProvider<RedissonClient> redissonClientProvider;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RAtomicLong counter;
+
+    @Mock
+    private RTopic topic;
+
+    private MessageListener<Long> listener;
+    private NetworkVersion networkVersion;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(redissonClientProvider.getObject()).thenReturn(redissonClient);
+        when(redissonClient.getAtomicLong(anyString())).thenReturn(counter);
+        when(redissonClient.getTopic(anyString())).thenReturn(topic);
+        ArgumentCaptor<MessageListener<Long>> captor = ArgumentCaptor.forClass(MessageListener.class);
+        when(topic.addListener(eq(Long.class), captor.capture())).thenReturn(1);
+        when(counter.get()).thenReturn(4L);
+        networkVersion = new NetworkVersion(redissonClientProvider, true, 60000);
+        listener = captor.getValue();
+    }
+
+    @Test
+    void current_ShouldStartFromTheSharedCounterAndFollowAnnouncements() {
+        assertEquals(4L, networkVersion.current());
+
+        listener.onMessage("network:version:changed", 6L);
+        assertEquals(6L, networkVersion.current());
+
+        listener.onMessage("network:version:changed", 5L);
+        assertEquals(6L, networkVersion.current(), "A late announcement should not move the version back");
+        verify(counter, times(1)).get();
+    }
+
+    @Test
+    void onNetworkChanged_ShouldIncrementTheSharedCounterAndAnnounceIt() {
+        when(counter.incrementAndGet()).thenReturn(5L);
+
+        networkVersion.onNetworkChanged(new NetworkChangedEvent("transportation created"));
+
+        assertEquals(5L, networkVersion.current());
+        verify(topic).publish(5L);
+    }
+
+    @Test
+    void bump_ShouldMovePastKnownVersions_WhenTheCounterWasLost() {
+        when(counter.incrementAndGet()).thenReturn(1L);
+        when(counter.addAndGet(4L)).thenReturn(5L);
+
+        assertEquals(5L, networkVersion.bump());
+        assertEquals(5L, networkVersion.current());
+    }
+}
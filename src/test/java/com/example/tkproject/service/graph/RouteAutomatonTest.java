@@ -0,0 +1,65 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.enums.TransportationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteAutomatonTest {
+
+    private static int run(RouteAutomaton automaton, TransportationType... types) {
+        int state = automaton.start();
+        for (TransportationType type : types) {
+            if (state == RouteAutomaton.DEAD) {
+                return state;
+            }
+            state = automaton.next(state, (byte) type.ordinal());
+        }
+        return state;
+    }
+
+    private static boolean accepts(RouteAutomaton automaton, TransportationType... types) {
+        int state = run(automaton, types);
+        return state != RouteAutomaton.DEAD && automaton.isAccepting(state);
+    }
+
+    @Test
+    void compile_DefaultRules_ShouldAcceptTransferFlightTransfer() {
+        RouteAutomaton automaton = RouteAutomaton.compile(RouteRules.DEFAULT);
+
+        assertTrue(accepts(automaton, TransportationType.FLIGHT));
+        assertTrue(accepts(automaton, TransportationType.BUS, TransportationType.FLIGHT, TransportationType.UBER));
+        assertFalse(accepts(automaton, TransportationType.BUS), "A route without a flight is not valid");
+        assertEquals(RouteAutomaton.DEAD, run(automaton, TransportationType.FLIGHT, TransportationType.FLIGHT),
+                "A second flight should end the prefix immediately");
+        assertEquals(RouteAutomaton.DEAD, run(automaton, TransportationType.BUS, TransportationType.SUBWAY),
+                "Two transfers before the flight can never become valid");
+        assertEquals(RouteAutomaton.DEAD, run(automaton, TransportationType.FLIGHT, TransportationType.BUS, TransportationType.UBER));
+        assertEquals(1, automaton.minLegsToAccept(run(automaton, TransportationType.BUS)));
+    }
+
+    @Test
+    void compile_ShouldPruneStatesThatCannotReachAcceptance() {
+        RouteRules rules = new RouteRules(3, 2, 2, 2, Map.of(3, Set.of(TransportationType.FLIGHT)));
+        RouteAutomaton automaton = RouteAutomaton.compile(rules);
+
+        assertTrue(accepts(automaton, TransportationType.BUS, TransportationType.FLIGHT, TransportationType.FLIGHT));
+        assertTrue(accepts(automaton, TransportationType.FLIGHT, TransportationType.BUS, TransportationType.FLIGHT));
+        assertEquals(2, automaton.minLegsToAccept(run(automaton, TransportationType.BUS)));
+        assertEquals(RouteAutomaton.DEAD, run(automaton, TransportationType.BUS, TransportationType.SUBWAY),
+                "Two transfers leave room for only one of the two required flights");
+        assertEquals(RouteAutomaton.DEAD, run(automaton, TransportationType.FLIGHT, TransportationType.FLIGHT, TransportationType.UBER));
+    }
+
+    @Test
+    void parseAllowedTypes_ShouldReadTypesByPosition() {
+        assertEquals(Map.of(1, Set.of(TransportationType.BUS, TransportationType.SUBWAY), 2, Set.of(TransportationType.FLIGHT)),
+                RouteRules.parseAllowedTypes("1:BUS|subway; 2:FLIGHT"));
+        assertTrue(RouteRules.parseAllowedTypes(" ").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> RouteRules.parseAllowedTypes("1"));
+        assertThrows(IllegalArgumentException.class, () -> new RouteRules(RouteRules.MAX_LEGS_LIMIT + 1, 1, 1, 1, Map.of()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+import com.example.tkproject.util.GeoUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteGraphSnapshotTest {
+
+    private static Location location(long id, String code) {
+        Location location = new Location(code, "Country", "City", code);
+        location.setId(id);
+        return location;
+    }
+
+    private static Transportation transportation(long id, Location origin, Location destination, TransportationType type) {
+        Transportation transportation = new Transportation(origin, destination, type, Set.of(1));
+        transportation.setId(id);
+        return transportation;
+    }
+
+    @Test
+    void build_ShouldGroupEdgesByOriginInCsrOrder() {
+        Location ist = location(30L, "IST");
+        Location saw = location(10L, "SAW");
+        Location lhr = location(20L, "LHR");
+        Transportation flight = transportation(1L, ist, lhr, TransportationType.FLIGHT);
+        Transportation bus = transportation(2L, saw, ist, TransportationType.BUS);
+        Transportation uber = transportation(3L, ist, saw, TransportationType.UBER);
+
+        RouteGraphSnapshot graph = RouteGraphSnapshot.build(1, List.of(flight, bus, uber));
+
+        assertEquals(3, graph.nodeCount());
+        assertEquals(3, graph.edgeCount());
+        assertEquals(-1, graph.indexOf(99L), "Unknown locations should not have a node");
+
+        int istNode = graph.indexOf(30L);
+        assertEquals(30L, graph.locationId(istNode));
+        assertSame(ist, graph.location(istNode));
+        assertEquals(2, graph.endEdge(istNode) - graph.firstEdge(istNode), "IST should have two outgoing edges");
+
+        int first = graph.firstEdge(istNode);
+        assertSame(flight, graph.transportation(first));
+        assertTrue(graph.isFlight(first));
+        assertEquals(graph.indexOf(20L), graph.target(first));
+        assertSame(uber, graph.transportation(first + 1));
+        assertEquals(TransportationType.UBER, graph.transportationType(first + 1));
+
+        int lhrNode = graph.indexOf(20L);
+        assertEquals(graph.firstEdge(lhrNode), graph.endEdge(lhrNode), "LHR should have no outgoing edges");
+    }
+
+    @Test
+    void findInboundTransfers_ShouldReturnTransfersBetweenTwoLocations() {
+        Location ist = location(1L, "IST");
+        Location saw = location(2L, "SAW");
+        Location taksim = location(3L, "TAK");
+        Transportation bus = transportation(1L, ist, taksim, TransportationType.BUS);
+        Transportation subway = transportation(2L, saw, taksim, TransportationType.SUBWAY);
+        Transportation uber = transportation(3L, saw, taksim, TransportationType.UBER);
+        Transportation flight = transportation(4L, saw, taksim, TransportationType.FLIGHT);
+
+        RouteGraphSnapshot graph = RouteGraphSnapshot.build(1, List.of(bus, subway, flight, uber));
+
+        int target = graph.indexOf(3L);
+        int origin = graph.indexOf(2L);
+        int first = graph.findInboundTransfers(target, origin);
+        assertEquals(2, graph.endInboundTransfers(target) - first, "Only the SAW transfers should follow");
+        assertSame(subway, graph.transportation(graph.inboundTransfer(first)));
+        assertSame(uber, graph.transportation(graph.inboundTransfer(first + 1)));
+        assertEquals(graph.firstEdge(origin) + 1, graph.flightEnd(origin), "SAW should have exactly one flight");
+    }
+
+    @Test
+    void reverseIndexes_ShouldListEdgesBetweenTwoLocations() {
+        Location ist = location(1L, "IST");
+        Location saw = location(2L, "SAW");
+        Location taksim = location(3L, "TAK");
+        Transportation bus = transportation(1L, ist, taksim, TransportationType.BUS);
+        Transportation uber = transportation(2L, ist, saw, TransportationType.UBER);
+        Transportation subway = transportation(3L, ist, taksim, TransportationType.SUBWAY);
+        Transportation flight1 = transportation(4L, saw, taksim, TransportationType.FLIGHT);
+        Transportation flight2 = transportation(5L, ist, taksim, TransportationType.FLIGHT);
+
+        RouteGraphSnapshot graph = RouteGraphSnapshot.build(1, List.of(bus, uber, subway, flight1, flight2));
+
+        int istNode = graph.indexOf(1L);
+        int taksimNode = graph.indexOf(3L);
+        int first = graph.findOutboundTransfers(istNode, taksimNode);
+        assertEquals(graph.endEdge(istNode), first + 2, "Only the IST-TAK transfers should follow");
+        assertEquals(Set.of(bus, subway), Set.of(graph.transportation(first), graph.transportation(first + 1)));
+        assertSame(uber, graph.transportation(graph.findOutboundTransfers(istNode, graph.indexOf(2L))));
+
+        assertEquals(2, graph.endInboundFlights(taksimNode) - graph.firstInboundFlight(taksimNode));
+        assertSame(flight2, graph.transportation(graph.inboundFlight(graph.firstInboundFlight(taksimNode))),
+                "Inbound flights should be ordered by origin");
+        assertSame(flight1, graph.transportation(graph.inboundFlight(graph.firstInboundFlight(taksimNode) + 1)));
+    }
+
+    @Test
+    void edgeOf_ShouldFindTheEdgeOfATransportation() {
+        Location ist = location(1L, "IST");
+        Location saw = location(2L, "SAW");
+        Transportation flight = transportation(7L, ist, saw, TransportationType.FLIGHT);
+        Transportation bus = transportation(3L, saw, ist, TransportationType.BUS);
+
+        RouteGraphSnapshot graph = RouteGraphSnapshot.build(1, List.of(flight, bus));
+
+        assertSame(flight, graph.transportation(graph.edgeOf(7L)));
+        assertSame(bus, graph.transportation(graph.edgeOf(3L)));
+        assertEquals(-1, graph.edgeOf(5L), "Transportations not operating on the day should have no edge");
+    }
+
+    @Test
+    void edgeDistance_ShouldMatchHaversineDistance() {
+        RouteGraphSnapshot graph = TestNetworks.random(5L, 20, 150);
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            double expected = GeoUtil.distance(graph.location(graph.origin(e)), graph.location(graph.target(e)));
+            if (expected == Double.MAX_VALUE) {
+                assertEquals(RouteGraphSnapshot.UNKNOWN_DISTANCE, graph.edgeDistance(e),
+                        "Edges touching a location without coordinates should have an unknown distance");
+            } else {
+                assertEquals(expected, graph.edgeDistance(e), 1e-9);
+                assertEquals(expected, graph.distance(graph.origin(e), graph.target(e)), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void build_ShouldHandleEmptyNetwork() {
+        RouteGraphSnapshot graph = RouteGraphSnapshot.build(1, List.of());
+
+        assertEquals(0, graph.nodeCount());
+        assertEquals(0, graph.edgeCount());
+        assertEquals(-1, graph.indexOf(1L));
+    }
+}
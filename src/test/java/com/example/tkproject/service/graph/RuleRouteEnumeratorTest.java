@@ -0,0 +1,133 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.enums.RouteSortOrder;
+import com.example.tkproject.model.enums.TransportationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleRouteEnumeratorTest {
+
+    private static Set<List<Integer>> enumerate(RouteEngine engine, RouteGraphSnapshot graph, int origin, int destination) {
+        Set<List<Integer>> routes = new HashSet<>();
+        engine.enumerate(graph, origin, destination, LayeredRouteEnumerator.RouteBound.NONE, (legs, length, distance) -> {
+            assertEquals(graph.routeDistance(Arrays.copyOf(legs, length)), distance, 1e-9, "Route should carry its distance");
+            assertTrue(routes.add(Arrays.stream(legs, 0, length).boxed().toList()), "Route should be unique");
+        });
+        return routes;
+    }
+
+    private static boolean isValid(RouteGraphSnapshot graph, RouteRules rules, List<Integer> legs) {
+        int flights = 0;
+        int transfers = 0;
+        for (int i = 0; i < legs.size(); i++) {
+            int e = legs.get(i);
+            if (!rules.allows(i + 1, graph.transportationType(e))) {
+                return false;
+            }
+            transfers = graph.isFlight(e) ? 0 : transfers + 1;
+            flights += graph.isFlight(e) ? 1 : 0;
+            if (transfers > rules.getMaxConsecutiveTransfers()) {
+                return false;
+            }
+        }
+        return flights >= rules.getMinFlights() && flights <= rules.getMaxFlights();
+    }
+
+    private static void bruteForce(RouteGraphSnapshot graph, RouteRules rules, int node, int destination,
+                                   List<Integer> prefix, Set<List<Integer>> routes) {
+        if (!prefix.isEmpty() && node == destination) {
+            if (isValid(graph, rules, prefix)) {
+                routes.add(List.copyOf(prefix));
+            }
+            return;
+        }
+        if (prefix.size() == rules.getMaxLegs()) {
+            return;
+        }
+        for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+            prefix.add(e);
+            bruteForce(graph, rules, graph.target(e), destination, prefix, routes);
+            prefix.removeLast();
+        }
+    }
+
+    @Test
+    void enumerate_ShouldReturnExactlyTheRoutesAllowedByTheRules() {
+        RouteGraphSnapshot graph = TestNetworks.random(11L, 10, 70);
+        List<RouteRules> rules = List.of(
+                new RouteRules(4, 1, 2, 1, Map.of()),
+                new RouteRules(3, 0, 1, 2, Map.of(2, Set.of(TransportationType.FLIGHT, TransportationType.BUS))),
+                new RouteRules(3, 1, 1, 1, Map.of(1, Set.of(TransportationType.UBER))));
+        for (RouteRules rule : rules) {
+            RouteEngine engine = new RouteEngine(rule);
+            for (int origin = 0; origin < graph.nodeCount(); origin++) {
+                for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                    if (origin == destination) {
+                        continue;
+                    }
+                    Set<List<Integer>> expected = new HashSet<>();
+                    bruteForce(graph, rule, origin, destination, new ArrayList<>(), expected);
+                    assertEquals(expected, enumerate(engine, graph, origin, destination), "Rules " + rule);
+                }
+            }
+        }
+    }
+
+    @Test
+    void enumerate_EquivalentToDefaultRules_ShouldMatchLayeredEnumerator() {
+        RouteGraphSnapshot graph = TestNetworks.random(42L, 12, 90);
+        RouteAutomaton automaton = RouteAutomaton.compile(RouteRules.DEFAULT);
+        for (int origin = 0; origin < graph.nodeCount(); origin++) {
+            Set<List<Integer>> fromOrigin = new HashSet<>();
+            RuleRouteEnumerator.enumerateFrom(graph, automaton, origin, (legs, length, distance) ->
+                    fromOrigin.add(Arrays.stream(legs, 0, length).boxed().toList()));
+            Set<List<Integer>> layeredFromOrigin = new HashSet<>();
+            LayeredRouteEnumerator.enumerateFrom(graph, origin, (legs, length, distance) ->
+                    layeredFromOrigin.add(Arrays.stream(legs, 0, length).boxed().toList()));
+            assertEquals(layeredFromOrigin, fromOrigin, "One-to-all enumeration should find the same routes");
+
+            for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                if (destination == origin) {
+                    continue;
+                }
+                Set<List<Integer>> routes = new HashSet<>();
+                RuleRouteEnumerator.enumerate(graph, automaton, origin, destination, LayeredRouteEnumerator.RouteBound.NONE,
+                        (legs, length, distance) -> routes.add(Arrays.stream(legs, 0, length).boxed().toList()));
+                Set<List<Integer>> layered = new HashSet<>();
+                LayeredRouteEnumerator.enumerate(graph, origin, destination, (legs, length, distance) ->
+                        layered.add(Arrays.stream(legs, 0, length).boxed().toList()));
+                assertEquals(layered, routes);
+            }
+        }
+    }
+
+    @Test
+    void enumerate_WithTopRouteCollector_ShouldKeepTheShortestRoutes() {
+        RouteGraphSnapshot graph = TestNetworks.random(3L, 10, 80);
+        RouteEngine engine = new RouteEngine(new RouteRules(4, 1, 2, 2, Map.of()));
+        for (int origin = 0; origin < graph.nodeCount(); origin++) {
+            for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                if (origin == destination) {
+                    continue;
+                }
+                TopRouteCollector all = new TopRouteCollector(graph, RouteSortOrder.DISTANCE, Integer.MAX_VALUE);
+                engine.enumerate(graph, origin, destination, LayeredRouteEnumerator.RouteBound.NONE, all);
+                TopRouteCollector top = new TopRouteCollector(graph, RouteSortOrder.DISTANCE, 3);
+                engine.enumerate(graph, origin, destination, top, top);
+
+                List<GraphRoute> expected = all.getRoutes().subList(0, Math.min(3, all.getRoutes().size()));
+                assertEquals(expected.stream().map(r -> Arrays.stream(r.getLegs()).boxed().toList()).toList(),
+                        top.getRoutes().stream().map(r -> Arrays.stream(r.getLegs()).boxed().toList()).toList(),
+                        "Pruning by the bound should not lose any of the best routes");
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.Location;
+import com.example.tkproject.model.Transportation;
+import com.example.tkproject.model.enums.TransportationType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+final class TestNetworks {
+
+    private static final TransportationType[] TYPES = TransportationType.values();
+
+    private TestNetworks() {
+    }
+
+    /**
+     * Random network with coordinates around Europe; every tenth location has none.
+     */
+    static RouteGraphSnapshot random(long seed, int locationCount, int transportationCount) {
+        Random random = new Random(seed);
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < locationCount; i++) {
+            Location location = new Location("L" + i, "Country", "City", "L" + i);
+            location.setId((long) i + 1);
+            if (i % 10 != 9) {
+                location.setLatitude(35 + random.nextDouble() * 25);
+                location.setLongitude(-10 + random.nextDouble() * 40);
+            }
+            locations.add(location);
+        }
+        List<Transportation> transportations = new ArrayList<>();
+        for (int i = 0; i < transportationCount; i++) {
+            int origin = random.nextInt(locationCount);
+            int destination = random.nextInt(locationCount - 1);
+            if (destination >= origin) {
+                destination++;
+            }
+            Transportation t = new Transportation(locations.get(origin), locations.get(destination),
+                    TYPES[random.nextInt(TYPES.length)], Set.of(1));
+            t.setId((long) i + 1);
+            transportations.add(t);
+        }
+        return RouteGraphSnapshot.build(1, transportations);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.tkproject.service.graph;
+
+import com.example.tkproject.model.enums.RouteSortOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopRouteCollectorTest {
+
+    private static List<List<Integer>> legs(List<GraphRoute> routes) {
+        return routes.stream().map(r -> Arrays.stream(r.getLegs()).boxed().toList()).toList();
+    }
+
+    @Test
+    void boundedSearch_ShouldReturnThePrefixOfTheFullOrder() {
+        RouteGraphSnapshot graph = TestNetworks.random(11L, 20, 400);
+        for (RouteSortOrder sortOrder : RouteSortOrder.values()) {
+            for (int origin = 0; origin < graph.nodeCount(); origin++) {
+                for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                    if (origin == destination) {
+                        continue;
+                    }
+                    TopRouteCollector all = new TopRouteCollector(graph, sortOrder, Integer.MAX_VALUE);
+                    LayeredRouteEnumerator.enumerate(graph, origin, destination, all);
+                    List<GraphRoute> expected = all.getRoutes();
+
+                    TopRouteCollector top = new TopRouteCollector(graph, sortOrder, 3);
+                    LayeredRouteEnumerator.enumerate(graph, origin, destination, top, top);
+
+                    assertEquals(legs(expected.subList(0, Math.min(3, expected.size()))), legs(top.getRoutes()),
+                            "Pruned search should keep the best routes for " + sortOrder);
+                }
+            }
+        }
+    }
+
+    @Test
+    void maxDistance_ShouldKeepExactlyTheRoutesWithinTheDetourLimit() {
+        RouteGraphSnapshot graph = TestNetworks.random(17L, 16, 300);
+        RouteEngine ruleEngine = new RouteEngine(new RouteRules(4, 1, 2, 2, Map.of()));
+        for (int origin = 0; origin < graph.nodeCount(); origin++) {
+            for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                if (origin == destination) {
+                    continue;
+                }
+                double maxDistance = 1.3 * graph.distance(origin, destination);
+                for (RouteEngine engine : List.of(new RouteEngine(RouteRules.DEFAULT), ruleEngine)) {
+                    TopRouteCollector all = new TopRouteCollector(graph, RouteSortOrder.DISTANCE, Integer.MAX_VALUE);
+                    engine.enumerate(graph, origin, destination, LayeredRouteEnumerator.RouteBound.NONE, all);
+                    List<GraphRoute> expected = all.getRoutes().stream().filter(r -> r.getDistance() <= maxDistance).toList();
+
+                    TopRouteCollector limited = new TopRouteCollector(graph, RouteSortOrder.DISTANCE, Integer.MAX_VALUE, maxDistance);
+                    engine.enumerate(graph, origin, destination, limited, limited);
+                    assertEquals(legs(expected), legs(limited.getRoutes()), "Detour pruning should not lose routes within the limit");
+
+                    TopRouteCollector top = new TopRouteCollector(graph, RouteSortOrder.LEGS, 2, maxDistance);
+                    engine.enumerate(graph, origin, destination, top, top);
+                    List<GraphRoute> byLegs = expected.stream()
+                            .sorted(Comparator.comparingInt((GraphRoute r) -> r.getLegs().length)
+                                    .thenComparingDouble(GraphRoute::getDistance))
+                            .toList();
+                    assertEquals(byLegs.stream().limit(2).map(r -> r.getLegs().length).toList(),
+                            top.getRoutes().stream().map(r -> r.getLegs().length).toList());
+                }
+            }
+        }
+    }
+
+    @Test
+    void getRoutes_ShouldOrderByLegsThenDistance() {
+        RouteGraphSnapshot graph = TestNetworks.random(3L, 12, 200);
+        TopRouteCollector collector = new TopRouteCollector(graph, RouteSortOrder.LEGS, Integer.MAX_VALUE);
+        for (int destination = 1; destination < graph.nodeCount(); destination++) {
+            LayeredRouteEnumerator.enumerate(graph, 0, destination, collector);
+        }
+        List<GraphRoute> routes = collector.getRoutes();
+        for (int i = 1; i < routes.size(); i++) {
+            GraphRoute previous = routes.get(i - 1);
+            GraphRoute current = routes.get(i);
+            assertTrue(previous.getLegs().length < current.getLegs().length
+                    || (previous.getLegs().length == current.getLegs().length && previous.getDistance() <= current.getDistance()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tkproject.warmup;
+
+import com.example.tkproject.dto.RouteQuery;
+import com.example.tkproject.service.LocationService;
+import com.example.tkproject.service.RouteService;
+import com.example.tkproject.service.TransportationService;
+import com.example.tkproject.service.graph.RouteGraphProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupWarmUpTest {
+
+    @Mock
+    private RouteGraphProvider routeGraphProvider;
+
+    @Mock
+    private LocationService locationService;
+
+    @Mock
+    private TransportationService transportationService;
+
+    @Mock
+    private RouteService routeService;
+
+    @Test
+    void warmUp_ShouldLoadGraphsCachesAndHotRoutesBeforeReportingReady() {
+        StartupWarmUp warmUp = new StartupWarmUp(routeGraphProvider, locationService, transportationService, routeService,
+                true, List.of("1-3"));
+        WarmUpHealthIndicator health = new WarmUpHealthIndicator(warmUp);
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+        warmUp.warmUp();
+
+        for (int day = 1; day <= 7; day++) {
+            verify(routeGraphProvider).getSnapshot(day);
+        }
+        verify(locationService).findAll();
+        verify(transportationService).findAll();
+        verify(routeService, times(7)).findRoutesSync(argThat((RouteQuery query) ->
+                query.getOriginId() == 1L && query.getDestinationId() == 3L));
+        assertEquals(Status.UP, health.health().getStatus());
+        assertEquals(0, health.health().getDetails().get("failures"));
+    }
+
+    @Test
+    void warmUp_ShouldReportReady_WhenAStepFails() {
+        when(locationService.findAll()).thenThrow(new RuntimeException("Database unavailable"));
+        StartupWarmUp warmUp = new StartupWarmUp(routeGraphProvider, locationService, transportationService, routeService,
+                true, List.of("not-a-pair-at-all"));
+
+        warmUp.warmUp();
+
+        assertTrue(warmUp.isFinished());
+        assertEquals(2, warmUp.getFailures());
+        verify(transportationService).findAll();
+        verifyNoInteractions(routeService);
+    }
+
+    @Test
+    void health_ShouldBeUp_WhenWarmUpIsDisabled() {
+        StartupWarmUp warmUp = new StartupWarmUp(routeGraphProvider, locationService, transportationService, routeService,
+                false, List.of());
+
+        assertEquals(Status.UP, new WarmUpHealthIndicator(warmUp).health().getStatus());
+    }
+}